@@ -0,0 +1,135 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Variante do {@link StartupBenchmark} com a JVM inteira na medida: lança o jar extraído
+ * pelo perfil "cds" (target/app) como processo novo, com ou sem
+ * {@code -XX:SharedArchiveFile=target/app/application.jsa -Dspring.aot.enabled=true}, e mede
+ * do lançamento até a primeira requisição que leva no máximo {@code fastMillis}.
+ *
+ * Antes: {@code ./mvnw -Pcds -DskipTests package}. Outro jar: {@code -Dapp.jar=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArchivedStartupBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cds;
+
+    @Param({"50"})
+    public long fastMillis;
+
+    private static final int MAX_REQUESTS = 1000;
+    private static final long START_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Path jar;
+    private byte[] payload;
+    private Process app;
+
+    @Setup
+    public void setup() throws Exception {
+        jar = Path.of(System.getProperty("app.jar", "target/app/pdfdrawer-0.0.1-SNAPSHOT.jar"));
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(jar + " não existe; rode ./mvnw -Pcds -DskipTests package");
+        }
+        Path archive = jar.resolveSibling("application.jsa");
+        if (cds && !Files.isRegularFile(archive)) {
+            throw new IllegalStateException(archive + " não existe; rode ./mvnw -Pcds -DskipTests package");
+        }
+        payload = JsonMapper.builder().build().writeValueAsBytes(Budgets.sample(500));
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        if (app != null) {
+            app.destroy();
+            if (!app.waitFor(10, TimeUnit.SECONDS)) app.destroyForcibly();
+            app = null;
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstFastRequest() throws Exception {
+        int port = freePort();
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (cds) {
+            cmd.add("-XX:SharedArchiveFile=" + jar.resolveSibling("application.jsa"));
+            cmd.add("-Dspring.aot.enabled=true");
+        }
+        cmd.addAll(List.of("-jar", jar.toString(),
+                "--server.port=" + port,
+                "--pdf.cache.max-bytes=0",
+                "--logging.level.root=WARN"));
+        long t0 = System.nanoTime();
+        app = new ProcessBuilder(cmd).inheritIO().start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/render/from-payload"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+
+        for (int n = 1; n <= MAX_REQUESTS; ) {
+            long t = System.nanoTime();
+            HttpResponse<byte[]> res;
+            try {
+                res = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (ConnectException e) {
+                // Ainda subindo
+                if (!app.isAlive()) throw new IllegalStateException("Aplicação saiu com " + app.exitValue());
+                if (System.nanoTime() - t0 > START_TIMEOUT_NANOS) throw new IllegalStateException("Aplicação não subiu");
+                Thread.sleep(5);
+                continue;
+            }
+            long ms = (System.nanoTime() - t) / 1_000_000;
+            if (res.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + res.statusCode());
+            }
+            if (ms <= fastMillis) {
+                System.out.printf("%n[startup] cds=%s requests=%d total=%d ms%n", cds, n,
+                        (System.nanoTime() - t0) / 1_000_000);
+                return n;
+            }
+            n++;
+        }
+        throw new IllegalStateException("Nenhuma requisição abaixo de " + fastMillis + " ms");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0)) {
+            return s.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.util.BR;
+import com.stongel.pdfdrawer.util.BRFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BRFormat x NumberFormat (uma instância por thread, que é o mínimo para ser correto).
+ * Rodar com "-prof gc" para comparar alocação.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class BRFormatBenchmark {
+
+    private static final Locale PTBR = Locale.of("pt", "BR");
+
+    private BigDecimal[] valores;
+    private NumberFormat nfMoeda;
+    private NumberFormat nfNum;
+
+    @Setup
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        valores = new BigDecimal[1024];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = BigDecimal.valueOf(rnd.nextLong(0, 100_000_000L), 2);
+        }
+        nfMoeda = NumberFormat.getCurrencyInstance(PTBR);
+        nfNum = NumberFormat.getNumberInstance(PTBR);
+    }
+
+    @Benchmark
+    public void numberFormatMoeda(Blackhole bh) {
+        for (BigDecimal v : valores) bh.consume(nfMoeda.format(v));
+    }
+
+    @Benchmark
+    public void brFormatMoeda(Blackhole bh) {
+        for (BigDecimal v : valores) bh.consume(BRFormat.moeda(v));
+    }
+
+    @Benchmark
+    public void numberFormatNumero(Blackhole bh) {
+        for (BigDecimal v : valores) bh.consume(nfNum.format(v));
+    }
+
+    @Benchmark
+    public void brFormatNumero(Blackhole bh) {
+        for (BigDecimal v : valores) bh.consume(BRFormat.numero(v));
+    }
+
+    @Benchmark
+    public void brMoeda(Blackhole bh) {
+        for (BigDecimal v : valores) bh.consume(BR.moeda(v));
+    }
+
+    @Benchmark
+    public void brNumero(Blackhole bh) {
+        for (BigDecimal v : valores) bh.consume(BR.numero(v));
+    }
+}
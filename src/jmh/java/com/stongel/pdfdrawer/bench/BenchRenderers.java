@@ -0,0 +1,45 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stongel.pdfdrawer.service.BudgetStreamReader;
+import com.stongel.pdfdrawer.service.CompressionProfile;
+import com.stongel.pdfdrawer.service.FontLibrary;
+import com.stongel.pdfdrawer.service.LayoutHolder;
+import com.stongel.pdfdrawer.service.RenderMemory;
+import com.stongel.pdfdrawer.service.RenderMetrics;
+import com.stongel.pdfdrawer.service.StongelTemplateRenderer;
+import com.stongel.pdfdrawer.service.TemplateEngine;
+import com.stongel.pdfdrawer.service.TemplateRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+
+/** Renderer montado à mão (sem Spring) com o template/layout do classpath. */
+public final class BenchRenderers {
+
+    private BenchRenderers() {}
+
+    public static StongelTemplateRenderer create(int pageParallelism, boolean incremental,
+                                                 CompressionProfile compression) throws IOException {
+        return create(pageParallelism, incremental, compression, RenderMemory.Mode.HEAP);
+    }
+
+    public static StongelTemplateRenderer create(int pageParallelism, boolean incremental,
+                                                 CompressionProfile compression,
+                                                 RenderMemory.Mode memoryMode) throws IOException {
+        TemplateEngine templates = new TemplateEngine("");
+        templates.reload();
+        LayoutHolder layouts = new LayoutHolder("");
+        layouts.reload();
+        TemplateRegistry registry = new TemplateRegistry(templates, layouts, "classpath:templates/", DataSize.ofMegabytes(256));
+        RenderMemory memory = new RenderMemory(new SimpleMeterRegistry(), memoryMode, DataSize.ofMegabytes(16), "");
+        return new StongelTemplateRenderer(registry, new RenderMetrics(new SimpleMeterRegistry()),
+                new FontLibrary(), new BudgetStreamReader(JsonMapper.builder()
+                        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                        .build()),
+                memory,
+                pageParallelism, incremental, compression, DataSize.ofMegabytes(16));
+    }
+}
@@ -0,0 +1,74 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Desserialização do BudgetDto com os nomes canônicos e com os aliases (@JsonAlias),
+ * no mesmo ObjectReader pré-construído que o controller usa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BudgetJsonBenchmark {
+
+    @Param({"50", "500"})
+    public int items;
+
+    private ObjectReader reader;
+    private byte[] canonical;
+    private byte[] aliased;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper mapper = JsonMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        reader = mapper.readerFor(BudgetDto.class);
+        String json = mapper.writeValueAsString(Budgets.sample(items));
+        canonical = json.getBytes(StandardCharsets.UTF_8);
+        aliased = json
+                .replace("\"empresa\"", "\"dadosEmpresa\"")
+                .replace("\"materiais\"", "\"itensMateriais\"")
+                .replace("\"servicos\"", "\"itensServicos\"")
+                .replace("\"razaoSocial\"", "\"razao_social\"")
+                .replace("\"descricao\"", "\"descricaoProduto\"")
+                .replace("\"unidade\"", "\"unidadeMedida\"")
+                .replace("\"quantidade\"", "\"qtd\"")
+                .replace("\"precoVenda\"", "\"valorVenda\"")
+                .replace("\"limiteDesconto\"", "\"limite_desc\"")
+                .replace("\"precoKg\"", "\"preco_por_kg\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public BudgetDto canonicalNames() throws IOException {
+        return reader.readValue(canonical);
+    }
+
+    @Benchmark
+    public BudgetDto aliases() throws IOException {
+        return reader.readValue(aliased);
+    }
+}
@@ -0,0 +1,15 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.SyntheticBudgets;
+
+/** Orçamentos sintéticos para os benchmarks (os mesmos do aquecimento, {@link SyntheticBudgets}). */
+public final class Budgets {
+
+    private Budgets() {}
+
+    /** Orçamento com {@code items} linhas, divididas meio a meio entre materiais e serviços. */
+    public static BudgetDto sample(int items) {
+        return SyntheticBudgets.sample(items);
+    }
+}
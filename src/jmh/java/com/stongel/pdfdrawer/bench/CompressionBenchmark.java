@@ -0,0 +1,62 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.CompressionProfile;
+import com.stongel.pdfdrawer.service.StongelTemplateRenderer;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tamanho x CPU por perfil de compressão. O tempo sai no relatório do JMH; o tamanho do
+ * PDF de cada combinação é impresso no fim do trial ("[compressao] ...").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"SPEED", "PACKED", "SIZE"})
+    public CompressionProfile profile;
+
+    @Param({"50", "500"})
+    public int items;
+
+    private StongelTemplateRenderer renderer;
+    private BudgetDto budget;
+    private int lastSize;
+
+    @Setup
+    public void setup() throws Exception {
+        renderer = BenchRenderers.create(1, false, profile);
+        budget = Budgets.sample(items);
+    }
+
+    @Benchmark
+    public ChunkedBytes renderFromTemplate() throws Exception {
+        ChunkedBytes pdf = renderer.renderFromTemplate(budget);
+        lastSize = (int) pdf.size();
+        return pdf;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n[compressao] profile=%s items=%d bytes=%d%n", profile, items, lastSize);
+    }
+}
@@ -0,0 +1,69 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.CompressionProfile;
+import com.stongel.pdfdrawer.service.StongelTemplateRenderer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON → documento preenchido: databind do BudgetDto inteiro + render, contra a ingestão
+ * em streaming. Rode com {@code -prof gc} para comparar a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestBenchmark {
+
+    @Param({"500", "5000", "50000"})
+    public int items;
+
+    private StongelTemplateRenderer renderer;
+    private ObjectReader reader;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        renderer = BenchRenderers.create(1, false, CompressionProfile.PACKED);
+        ObjectMapper mapper = JsonMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        reader = mapper.readerFor(BudgetDto.class);
+        json = mapper.writeValueAsBytes(Budgets.sample(items));
+    }
+
+    @Benchmark
+    public int databind() throws Exception {
+        BudgetDto dto = reader.readValue(json);
+        try (PDDocument doc = renderer.render(dto)) {
+            return doc.getNumberOfPages();
+        }
+    }
+
+    @Benchmark
+    public int streaming() throws Exception {
+        try (PDDocument doc = renderer.renderStreaming(new ByteArrayInputStream(json), null)) {
+            return doc.getNumberOfPages();
+        }
+    }
+}
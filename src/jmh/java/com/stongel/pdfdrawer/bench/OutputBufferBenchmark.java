@@ -0,0 +1,104 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.service.CompressionProfile;
+import com.stongel.pdfdrawer.util.ChunkPool;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import com.stongel.pdfdrawer.util.ChunkedOutputStream;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização de um documento já preenchido: ByteArrayOutputStream + toByteArray (como
+ * antes) contra blocos do pool com tamanho previsto. Rode com {@code -prof gc}: a diferença
+ * está em gc.alloc.rate.norm. {@code pooledWriteTo} é o caminho sem cópia final;
+ * {@code pooledDetach} é o das requisições (blocos entregues ao cache/resposta).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBufferBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int items;
+
+    private PDDocument doc;
+    private ChunkPool pool;
+    private long predicted;
+
+    @Setup
+    public void setup() throws Exception {
+        doc = BenchRenderers.create(1, false, CompressionProfile.PACKED).render(Budgets.sample(items));
+        pool = new ChunkPool(16L * 1024 * 1024);
+        ByteArrayOutputStream probe = new ByteArrayOutputStream();
+        doc.save(probe, CompressParameters.NO_COMPRESSION);
+        predicted = probe.size();
+    }
+
+    @TearDown
+    public void close() throws IOException {
+        doc.close();
+    }
+
+    @Benchmark
+    public byte[] byteArrayOutputStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doc.save(out, CompressParameters.NO_COMPRESSION);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pooled() throws IOException {
+        ChunkedOutputStream out = new ChunkedOutputStream(pool, predicted);
+        try {
+            doc.save(out, CompressParameters.NO_COMPRESSION);
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    @Benchmark
+    public long pooledWriteTo() throws IOException {
+        ChunkedOutputStream out = new ChunkedOutputStream(pool, predicted);
+        try {
+            doc.save(out, CompressParameters.NO_COMPRESSION);
+            out.writeTo(OutputStream.nullOutputStream());
+            return out.size();
+        } finally {
+            out.release();
+        }
+    }
+
+    @Benchmark
+    public ChunkedBytes pooledDetach() throws IOException {
+        ChunkedOutputStream out = new ChunkedOutputStream(pool, predicted);
+        try {
+            doc.save(out, CompressParameters.NO_COMPRESSION);
+            ChunkedBytes pdf = out.detach();
+            pdf.writeTo(OutputStream.nullOutputStream());
+            return pdf;
+        } finally {
+            out.release();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse do BudgetDto em JSON, CBOR e Smile (mesmos DTOs, mesmo ObjectReader por formato).
+ * O tamanho do payload de cada combinação é impresso no setup ("[payload] ...").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public String format;
+
+    @Param({"50", "5000"})
+    public int items;
+
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "SMILE" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        reader = mapper.readerFor(BudgetDto.class);
+        payload = mapper.writeValueAsBytes(Budgets.sample(items));
+        System.out.printf("%n[payload] format=%s items=%d bytes=%d%n", format, items, payload.length);
+    }
+
+    @Benchmark
+    public BudgetDto parse() throws IOException {
+        return reader.readValue(payload);
+    }
+}
@@ -0,0 +1,64 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.CompressionProfile;
+import com.stongel.pdfdrawer.service.RenderMemory;
+import com.stongel.pdfdrawer.service.StongelTemplateRenderer;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render completo (template + cabeçalho + tabelas + save) por número de itens, com as
+ * páginas geradas em sequência ou em paralelo (o ganho aparece a partir de ~500 itens,
+ * quando as tabelas passam de uma página).
+ * Sem Spring: os componentes são montados à mão com o template/layout do classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RendererBenchmark {
+
+    @Param({"0", "50", "500", "5000"})
+    public int items;
+
+    /** Threads para gerar as páginas (1 = sequencial, 0 = nº de CPUs). */
+    @Param({"1", "0"})
+    public int pageParallelism;
+
+    /** Saída completa (false) ou incremental sobre os bytes do template (true). */
+    @Param({"false", "true"})
+    public boolean incremental;
+
+    /** Streams no heap ou com transbordo para disco (compare com -p memory=HEAP,MIXED). */
+    @Param({"HEAP"})
+    public RenderMemory.Mode memory;
+
+    private StongelTemplateRenderer renderer;
+    private BudgetDto budget;
+
+    @Setup
+    public void setup() throws Exception {
+        renderer = BenchRenderers.create(pageParallelism, incremental, CompressionProfile.PACKED, memory);
+        budget = Budgets.sample(items);
+    }
+
+    @Benchmark
+    public ChunkedBytes renderFromTemplate() throws Exception {
+        return renderer.renderFromTemplate(budget);
+    }
+}
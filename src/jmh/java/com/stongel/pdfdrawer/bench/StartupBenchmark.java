@@ -0,0 +1,93 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stongel.pdfdrawer.StongelJavaPdfDrawerMicroservicoApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo até a primeira requisição rápida: sobe a aplicação (com ou sem aquecimento) e
+ * repete o mesmo POST /render/from-payload até um deles levar no máximo {@code fastMillis}.
+ * Cache de PDFs desligado, para que toda requisição renderize.
+ *
+ * Cada fork mede uma subida (JVM nova); a partida da própria JVM fica fora da medida.
+ * O número de requisições até a primeira rápida é impresso ("[startup] ...").
+ * Com a JVM na medida, com e sem AppCDS + AOT: {@link ArchivedStartupBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    @Param({"true", "false"})
+    public boolean warmup;
+
+    @Param({"50"})
+    public long fastMillis;
+
+    private static final int MAX_REQUESTS = 1000;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private byte[] payload;
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void setup() throws Exception {
+        payload = JsonMapper.builder().build().writeValueAsBytes(Budgets.sample(500));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (context != null) context.close();
+    }
+
+    @Benchmark
+    public int timeToFirstFastRequest() throws Exception {
+        context = new SpringApplicationBuilder(StongelJavaPdfDrawerMicroservicoApplication.class)
+                .run("--server.port=0",
+                        "--pdf.warmup.enabled=" + warmup,
+                        "--pdf.cache.max-bytes=0",
+                        "--logging.level.root=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/render/from-payload"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+
+        for (int n = 1; n <= MAX_REQUESTS; n++) {
+            long t0 = System.nanoTime();
+            HttpResponse<byte[]> res = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            if (res.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + res.statusCode());
+            }
+            if (ms <= fastMillis) {
+                System.out.printf("%n[startup] warmup=%s requests=%d last=%d ms%n", warmup, n, ms);
+                return n;
+            }
+        }
+        throw new IllegalStateException("Nenhuma requisição abaixo de " + fastMillis + " ms");
+    }
+}
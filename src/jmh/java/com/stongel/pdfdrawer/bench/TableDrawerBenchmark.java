@@ -0,0 +1,70 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.dto.ItemDto;
+import com.stongel.pdfdrawer.util.BR;
+import com.stongel.pdfdrawer.util.TableDrawer;
+import com.stongel.pdfdrawer.util.TableDrawer.Align;
+import com.stongel.pdfdrawer.util.TableDrawer.Col;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** TableDrawer.draw (medição de largura + alinhamento + texto) num content stream vazio. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableDrawerBenchmark {
+
+    private static final PDFont FONT = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private static final PDFont BOLD = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+    @Param({"50", "500"})
+    public int rows;
+
+    private List<ItemDto> itens;
+    private List<Col<ItemDto>> cols;
+
+    @Setup
+    public void setup() {
+        itens = Budgets.sample(rows * 2).getMateriais();
+        cols = List.of(
+                new Col<>("Descrição", 220f, Align.LEFT, ItemDto::getDescricao),
+                new Col<>("Un", 30f, Align.CENTER, ItemDto::getUnidade),
+                new Col<>("Qtd", 50f, Align.RIGHT, it -> BR.numero(it.getQuantidade())),
+                new Col<>("Custo", 70f, Align.RIGHT, it -> BR.moeda(it.getCusto())),
+                new Col<>("Preço", 70f, Align.RIGHT, it -> BR.moeda(it.getPrecoVenda())));
+    }
+
+    @Benchmark
+    public float draw() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                return TableDrawer.draw(cs, FONT, BOLD, 40f, 800f, 14f, 9f, cols, itens, 0.9f);
+            }
+        }
+    }
+}
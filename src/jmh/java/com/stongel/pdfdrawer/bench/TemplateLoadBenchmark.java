@@ -0,0 +1,80 @@
+package com.stongel.pdfdrawer.bench;
+
+import com.stongel.pdfdrawer.service.PdfTemplate;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Antes/depois do carregamento do template por requisição.
+ *
+ *   - reparsePerRequest: caminho antigo (lê o classpath + Loader.loadPDF + save)
+ *   - cloneFromMaster:   cópia a partir da mestre já parseada (PdfTemplate.newDocument + save)
+ *
+ * Rodar com "-prof gc" para ver bytes alocados por operação (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateLoadBenchmark {
+
+    private static final String TEMPLATE_PATH = "templates/STONGEL - PDF.pdf";
+
+    private PdfTemplate template;
+
+    @Setup
+    public void setup() throws IOException {
+        template = PdfTemplate.parse(readTemplate());
+    }
+
+    @TearDown
+    public void tearDown() {
+        template = null;
+    }
+
+    @Benchmark
+    public byte[] reparsePerRequest() throws IOException {
+        try (PDDocument doc = Loader.loadPDF(readTemplate())) {
+            return save(doc);
+        }
+    }
+
+    @Benchmark
+    public byte[] cloneFromMaster() throws IOException {
+        try (PDDocument doc = template.newDocument()) {
+            return save(doc);
+        }
+    }
+
+    private static byte[] readTemplate() throws IOException {
+        try (InputStream is = new ClassPathResource(TEMPLATE_PATH).getInputStream()) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static byte[] save(PDDocument doc) throws IOException {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            doc.save(baos);
+            return baos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.bench.Budgets;
+import com.stongel.pdfdrawer.dto.ItemDto;
+import com.stongel.pdfdrawer.util.BR;
+import com.stongel.pdfdrawer.util.GlyphWidths;
+import com.stongel.pdfdrawer.util.TextRun;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linhas da tabela paginadas e desenhadas (saída descartada): getters + formatação por
+ * célula, como antes, contra {@link ItemColumns}. Rode com {@code -prof gc} para ver a
+ * alocação por operação; {@code columnsPrebuilt} mostra o custo só do desenho.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemColumnsBenchmark {
+
+    private static final PDFont FONT = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private static final GlyphWidths WIDTHS = new GlyphWidths(FONT);
+    private static final Layout.Cols COLS = new Layout.Cols(60, 300, 340, 380, 420, 470, 530, 585);
+    private static final Layout.Table TABLE = Layout.Table.of(700f, 14f, 60f);
+
+    @Param({"500", "5000"})
+    public int rows;
+
+    private PDDocument doc;
+    private PDAppearanceStream form;
+    private List<ItemDto> itens;
+    private ItemColumns columns;
+    private float[] xs;
+
+    @Setup
+    public void setup() {
+        doc = new PDDocument();
+        form = new PDAppearanceStream(new COSStream());
+        PDResources res = new PDResources();
+        res.add(FONT);
+        form.setResources(res);
+        itens = Budgets.sample(rows * 2).getMateriais();
+        columns = ItemColumns.of(itens);
+        xs = ItemColumns.xs(COLS);
+    }
+
+    @TearDown
+    public void close() throws IOException {
+        doc.close();
+    }
+
+    @Benchmark
+    public float dtoPerCell() throws IOException {
+        float y = 0f;
+        int cap = TABLE.capacity();
+        try (PDPageContentStream cs = new PDPageContentStream(doc, form, OutputStream.nullOutputStream());
+             TextRun run = new TextRun(cs, WIDTHS)) {
+            for (int from = 0; from < itens.size(); from += cap) {
+                y = TABLE.yFirst();
+                for (ItemDto it : itens.subList(from, Math.min(itens.size(), from + cap))) {
+                    run.show(FONT, 10f, COLS.desc(),    y, safe(it.getDescricao()));
+                    run.show(FONT, 10f, COLS.comp(),    y, safe(it.getComp()));
+                    run.show(FONT, 10f, COLS.un(),      y, safe(it.getUnidade()));
+                    run.show(FONT, 10f, COLS.qtd(),     y, BR.numero(it.getQuantidade()));
+                    run.show(FONT, 10f, COLS.custo(),   y, BR.moeda(it.getCusto()));
+                    run.show(FONT, 10f, COLS.preco(),   y, BR.moeda(it.getPrecoVenda()));
+                    run.show(FONT, 10f, COLS.descLim(), y, it.getLimiteDesconto() != null ? it.getLimiteDesconto() + "%" : "-");
+                    run.show(FONT, 10f, COLS.precoKg(), y, BR.moeda(it.getPrecoKg()));
+                    y -= TABLE.rowStep();
+                }
+            }
+        }
+        return y;
+    }
+
+    @Benchmark
+    public float columns() throws IOException {
+        return drawPages(ItemColumns.of(itens));
+    }
+
+    @Benchmark
+    public float columnsPrebuilt() throws IOException {
+        return drawPages(columns);
+    }
+
+    private float drawPages(ItemColumns all) throws IOException {
+        float y = 0f;
+        int cap = TABLE.capacity();
+        try (PDPageContentStream cs = new PDPageContentStream(doc, form, OutputStream.nullOutputStream());
+             TextRun run = new TextRun(cs, WIDTHS)) {
+            for (int p = 0; p * cap < all.rows(); p++) {
+                y = StongelTemplateRenderer.drawItems(run, FONT, TABLE.yFirst() + TABLE.rowStep(), all.page(p, cap), xs, TABLE);
+            }
+        }
+        return y;
+    }
+
+    private static String safe(String s) {
+        return (s == null || s.isBlank()) ? "-" : s;
+    }
+}
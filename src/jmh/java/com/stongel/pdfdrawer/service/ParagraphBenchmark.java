@@ -0,0 +1,70 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.util.GlyphWidths;
+import com.stongel.pdfdrawer.util.TextRun;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quebra de linha do campo "Obra" (drawParagraph). Fica no pacote service porque o
+ * método é package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParagraphBenchmark {
+
+    private static final PDFont FONT = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private static final GlyphWidths WIDTHS = new GlyphWidths(FONT);
+
+    @Param({"12", "120"})
+    public int words;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        String[] pool = {"Rua", "das", "Palmeiras,", "1234", "Galpão", "B", "Distrito", "Industrial",
+                "Campinas/SP", "piso", "de", "alta", "resistência", "acabamento", "polido"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(pool[i % pool.length]);
+        }
+        text = sb.toString();
+    }
+
+    @Benchmark
+    public void drawParagraph() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page);
+                 TextRun run = new TextRun(cs, WIDTHS)) {
+                StongelTemplateRenderer.drawParagraph(run, FONT, 10f, 90f, 700f, 380f, text, 12f);
+            }
+        }
+    }
+}
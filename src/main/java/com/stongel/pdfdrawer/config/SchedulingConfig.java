@@ -0,0 +1,10 @@
+package com.stongel.pdfdrawer.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Tarefas periódicas (@Scheduled), ex.: limpeza dos resultados de jobs expirados. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -23,6 +23,10 @@ public class BudgetDto {
     @JsonAlias({"totais","resumoTotais"})
     private TotaisDto totais;
 
+    /** Variante do template (por cliente/marca); vazio = template padrão. */
+    @JsonAlias({"templateId","template","modelo"})
+    private String templateId;
+
     public EmpresaDto getEmpresa() { return empresa; }
     public void setEmpresa(EmpresaDto empresa) { this.empresa = empresa; }
 
@@ -37,4 +41,7 @@ public class BudgetDto {
 
     public TotaisDto getTotais() { return totais; }
     public void setTotais(TotaisDto totais) { this.totais = totais; }
+
+    public String getTemplateId() { return templateId; }
+    public void setTemplateId(String templateId) { this.templateId = templateId; }
 }
@@ -0,0 +1,254 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renderização em lote: vários orçamentos numa chamada, em paralelo num pool limitado.
+ *
+ * Todos os workers compartilham o template já parseado e o layout compilado, e cada render
+ * ocupa uma vaga do {@link RenderAdmission} (as mesmas das requisições). Nos dois
+ * modos (ZIP e merge) os resultados são consumidos em ordem, à medida que ficam prontos,
+ * com no máximo {@code 2 × threads} orçamentos em voo (memória limitada independente do
+ * tamanho do lote). No ZIP, ao final vai um "status.json" com o resultado de cada entrada;
+ * entradas ilegíveis aparecem lá como "erro", sem interromper o lote.
+ */
+@Service
+public class BatchRenderService {
+    private static final Logger log = LoggerFactory.getLogger(BatchRenderService.class);
+
+    private final StongelTemplateRenderer renderer;
+    private final RenderAdmission admission;
+    private final ObjectMapper mapper;
+    private final RenderMemory memory;
+    private final ExecutorService pool;
+    private final int window;
+
+    public BatchRenderService(StongelTemplateRenderer renderer, RenderAdmission admission,
+                              ObjectMapper mapper, RenderMemory memory,
+                              @Value("${pdf.batch.threads:0}") int threads) {
+        this.renderer = renderer;
+        this.admission = admission;
+        this.mapper = mapper;
+        this.memory = memory;
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = Executors.newFixedThreadPool(n, namedDaemon("pdf-batch-"));
+        this.window = n * 2;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** Resultado de uma entrada do lote (vai para o status.json). */
+    public record EntryStatus(int index, String arquivo, String status, Integer bytes, String mensagem) {}
+
+    /** Renderiza cada orçamento e grava um ZIP em {@code out}; retorna o status de cada entrada. */
+    public List<EntryStatus> renderZip(Iterator<BudgetDto> budgets, OutputStream out) throws IOException {
+        Entries entries = new Entries(budgets);
+        List<EntryStatus> statuses = new ArrayList<>();
+        Deque<Future<ChunkedBytes>> inFlight = new ArrayDeque<>();
+
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setLevel(Deflater.BEST_SPEED); // PDFs já são comprimidos
+            for (int index = 1; refill(entries, inFlight, renderer::renderFromTemplate); index++) {
+                String nome = String.format("orcamento-%04d.pdf", index);
+                try {
+                    ChunkedBytes pdf = inFlight.removeFirst().get();
+                    zip.putNextEntry(new ZipEntry(nome));
+                    pdf.writeTo(zip);
+                    zip.closeEntry();
+                    statuses.add(new EntryStatus(index, nome, "ok", (int) pdf.size(), null));
+                } catch (ExecutionException e) {
+                    statuses.add(failed(index, e));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    inFlight.forEach(f -> f.cancel(true));
+                    throw new IOException("Lote interrompido", e);
+                }
+            }
+
+            zip.putNextEntry(new ZipEntry("status.json"));
+            zip.write(mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(summary(statuses)));
+            zip.closeEntry();
+        } catch (IOException | RuntimeException e) {
+            inFlight.forEach(f -> f.cancel(true));
+            throw e;
+        }
+        return statuses;
+    }
+
+    /**
+     * Renderiza em paralelo e junta num único PDF, na ordem de entrada, com a mesma janela
+     * de {@code 2 × threads} partes em voo do ZIP; cada parte é fechada assim que anexada.
+     * Entradas com erro ficam de fora e aparecem como "erro" no retorno.
+     * Quem chama deve fechar o documento devolvido.
+     */
+    public MergedResult renderMerged(Iterator<BudgetDto> budgets) throws IOException {
+        Entries entries = new Entries(budgets);
+        List<EntryStatus> statuses = new ArrayList<>();
+        Deque<Future<PDDocument>> inFlight = new ArrayDeque<>();
+        PDDocument merged = new PDDocument(memory.streamCache());
+        try {
+            PDFMergerUtility merger = new PDFMergerUtility();
+            for (int index = 1; refill(entries, inFlight, renderer::renderForMerge); index++) {
+                try (PDDocument part = inFlight.removeFirst().get()) {
+                    int before = merged.getNumberOfPages();
+                    merger.appendDocument(merged, part);
+                    statuses.add(new EntryStatus(index, "páginas " + (before + 1) + "-" + merged.getNumberOfPages(), "ok", null, null));
+                } catch (ExecutionException e) {
+                    statuses.add(failed(index, e));
+                }
+            }
+            return new MergedResult(merged, statuses);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(inFlight);
+            merged.close();
+            throw new IOException("Lote interrompido", e);
+        } catch (IOException | RuntimeException e) {
+            discard(inFlight);
+            merged.close();
+            throw e;
+        }
+    }
+
+    /** PDF unificado (as partes já foram copiadas para ele e fechadas). */
+    public record MergedResult(PDDocument document, List<EntryStatus> statuses) implements AutoCloseable {
+
+        public void save(OutputStream out) throws IOException {
+            document.save(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            document.close();
+        }
+    }
+
+    public Map<String, Object> summary(List<EntryStatus> statuses) {
+        long ok = statuses.stream().filter(s -> "ok".equals(s.status())).count();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", statuses.size());
+        body.put("ok", ok);
+        body.put("erros", statuses.size() - ok);
+        body.put("entradas", statuses);
+        return body;
+    }
+
+    /** Render de uma entrada (executado no pool). */
+    private interface Render<T> {
+        T apply(BudgetDto dto) throws Exception;
+    }
+
+    /**
+     * Completa a janela: lê entradas e agenda renders até {@code window} em voo. Uma entrada
+     * ilegível entra na fila como resultado com erro, na posição dela. Retorna se ainda há
+     * resultado a consumir.
+     */
+    private <T> boolean refill(Entries entries, Deque<Future<T>> inFlight, Render<T> render) {
+        while (inFlight.size() < window) {
+            Entry entry = entries.next();
+            if (entry == null) break;
+            inFlight.add(entry.error() != null
+                    ? CompletableFuture.failedFuture(entry.error())
+                    : pool.submit(() -> admission.runBackground(() -> render.apply(entry.dto()))));
+        }
+        return !inFlight.isEmpty();
+    }
+
+    private static EntryStatus failed(int index, ExecutionException e) {
+        log.warn("Lote: falha na entrada {}", index, e.getCause());
+        return new EntryStatus(index, null, "erro", null, String.valueOf(e.getCause().getMessage()));
+    }
+
+    /** Cancela o que está em voo e fecha as partes que já ficaram prontas. */
+    private static void discard(Deque<Future<PDDocument>> inFlight) {
+        for (Future<PDDocument> f : inFlight) {
+            if (f.cancel(true) || f.state() != Future.State.SUCCESS) continue;
+            try {
+                f.resultNow().close();
+            } catch (IOException e) {
+                log.debug("Falha ao fechar documento parcial", e);
+            }
+        }
+    }
+
+    private record Entry(BudgetDto dto, RuntimeException error) {}
+
+    /**
+     * Leitura das entradas do lote. Uma entrada que não desserializa vira erro e a leitura
+     * segue na próxima; se nem dá para saber se há próxima (JSON quebrado), o lote termina
+     * com essa entrada em erro.
+     */
+    private static final class Entries {
+        private final Iterator<BudgetDto> source;
+        private boolean ended;
+        private boolean lastFailed;
+
+        Entries(Iterator<BudgetDto> source) {
+            this.source = source;
+        }
+
+        /** Próxima entrada, ou null no fim. */
+        Entry next() {
+            if (ended) return null;
+            try {
+                if (!source.hasNext()) {
+                    ended = true;
+                    return null;
+                }
+            } catch (RuntimeException e) {
+                // JSON quebrado daqui em diante; se foi na entrada que acabou de falhar, ela já conta
+                ended = true;
+                return lastFailed ? null : new Entry(null, e);
+            }
+            try {
+                Entry entry = new Entry(source.next(), null);
+                lastFailed = false;
+                return entry;
+            } catch (RuntimeException e) {
+                lastFailed = true;
+                return new Entry(null, e);
+            }
+        }
+    }
+
+    private static ThreadFactory namedDaemon(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.dto.ItemDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leitura de um orçamento em streaming (Jackson {@link JsonParser}).
+ *
+ * Os itens de materiais/serviços são entregues um a um ao {@link Handler} à medida que
+ * chegam, sem montar as listas; o resto (empresa, obra, totais, templateId) é pequeno e
+ * vira um {@link BudgetDto} sem itens. Os nomes aceitos (aliases) são os do próprio
+ * {@link BudgetDto}: cada campo com array é testado uma vez contra ele.
+ */
+@Component
+public class BudgetStreamReader {
+
+    public enum Section { MATERIAIS, SERVICOS }
+
+    public interface Handler {
+        /** Chamado uma vez, antes do primeiro item (ou no fim, se não houver itens), com os campos lidos até ali. */
+        void start(BudgetDto headerSoFar) throws Exception;
+
+        void item(Section section, ItemDto item) throws Exception;
+    }
+
+    /** Limite de nomes de campo memorizados (nomes vêm do cliente). */
+    private static final int MAX_CACHED_NAMES = 256;
+
+    private final ObjectMapper mapper;
+    private final ObjectReader itemReader;
+    private final Map<String, Optional<Section>> sections = new ConcurrentHashMap<>();
+
+    public BudgetStreamReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.itemReader = mapper.readerFor(ItemDto.class);
+    }
+
+    /** Lê o objeto inteiro de {@code in}; devolve os campos fora das tabelas. */
+    public BudgetDto read(InputStream in, Handler handler) throws Exception {
+        ObjectNode header = mapper.createObjectNode();
+        boolean started = false;
+
+        try (JsonParser p = mapper.getFactory().createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Esperado um objeto JSON com o orçamento");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken value = p.nextToken();
+                Section section = value == JsonToken.START_ARRAY ? section(name) : null;
+                if (section == null) {
+                    JsonNode node = mapper.readTree(p);
+                    header.set(name, node);
+                    continue;
+                }
+                if (!started) {
+                    handler.start(toDto(header));
+                    started = true;
+                }
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    ItemDto item = itemReader.readValue(p);
+                    if (item != null) {
+                        handler.item(section, item);
+                    }
+                }
+            }
+        }
+
+        BudgetDto dto = toDto(header);
+        if (!started) {
+            handler.start(dto);
+        }
+        return dto;
+    }
+
+    private BudgetDto toDto(ObjectNode header) throws IOException {
+        return mapper.treeToValue(header, BudgetDto.class);
+    }
+
+    /** Tabela correspondente ao campo (por nome ou alias em {@link BudgetDto}) ou null. */
+    private Section section(String name) {
+        Optional<Section> known = sections.get(name);
+        if (known == null) {
+            known = Optional.ofNullable(probe(name));
+            if (sections.size() < MAX_CACHED_NAMES) {
+                sections.put(name, known);
+            }
+        }
+        return known.orElse(null);
+    }
+
+    private Section probe(String name) {
+        ObjectNode probe = mapper.createObjectNode();
+        probe.set(name, mapper.createArrayNode());
+        try {
+            BudgetDto dto = mapper.treeToValue(probe, BudgetDto.class);
+            if (dto.getMateriais() != null) return Section.MATERIAIS;
+            if (dto.getServicos() != null) return Section.SERVICOS;
+        } catch (IOException e) {
+            // array num campo que não é lista (ex.: "obra": [...]): não é tabela
+        }
+        return null;
+    }
+}
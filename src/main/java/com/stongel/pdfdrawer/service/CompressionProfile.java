@@ -0,0 +1,39 @@
+package com.stongel.pdfdrawer.service;
+
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+
+import java.util.zip.Deflater;
+
+/**
+ * Compressão da saída ("pdf.output.compression").
+ *
+ *   SPEED  — Deflate rápido nos streams que geramos, sem object streams (menos CPU no save)
+ *   PACKED — Deflate padrão + object streams (padrão do PDFBox 3; é o comportamento de antes)
+ *   SIZE   — Deflate máximo + object streams (menor arquivo)
+ *
+ * Os streams do template nunca são recomprimidos: os bytes já comprimidos vêm do
+ * {@link PdfTemplate} e são gravados como estão.
+ */
+public enum CompressionProfile {
+    SPEED(Deflater.BEST_SPEED, false),
+    PACKED(Deflater.DEFAULT_COMPRESSION, true),
+    SIZE(Deflater.BEST_COMPRESSION, true);
+
+    private final int deflateLevel;
+    private final boolean objectStreams;
+
+    CompressionProfile(int deflateLevel, boolean objectStreams) {
+        this.deflateLevel = deflateLevel;
+        this.objectStreams = objectStreams;
+    }
+
+    /** Nível do Deflater para os streams de conteúdo gerados. */
+    public int deflateLevel() {
+        return deflateLevel;
+    }
+
+    /** Parâmetros do save (object streams ligados ou não). */
+    public CompressParameters compressParameters() {
+        return objectStreams ? CompressParameters.DEFAULT_COMPRESSION : CompressParameters.NO_COMPRESSION;
+    }
+}
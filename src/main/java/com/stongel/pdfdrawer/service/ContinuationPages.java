@@ -0,0 +1,80 @@
+package com.stongel.pdfdrawer.service;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Página de tabelas + páginas de continuação criadas sob demanda.
+ *
+ * Cada continuação é uma cópia rasa da página de tabelas ainda intocada (mesmos
+ * streams de conteúdo, imagens e fontes do template, só referenciados), inserida logo
+ * após a anterior. /Contents e /Resources ganham dicionários/arrays próprios para que
+ * o APPEND de uma página não vaze para as outras.
+ */
+final class ContinuationPages {
+
+    private final PDDocument doc;
+    private final COSDictionary pristine;
+    private final List<PDPage> pages = new ArrayList<>();
+
+    /** Deve ser criado antes de qualquer desenho na página de tabelas. */
+    ContinuationPages(PDDocument doc, PDPage tablesPage) {
+        this.doc = doc;
+        this.pristine = copyPage(tablesPage.getCOSObject());
+        this.pages.add(tablesPage);
+    }
+
+    /** Página {@code i} da sequência (0 = página de tabelas original). */
+    PDPage get(int i) {
+        while (pages.size() <= i) {
+            PDPage next = new PDPage(copyPage(pristine));
+            doc.getPages().insertAfter(next, pages.get(pages.size() - 1));
+            pages.add(next);
+        }
+        return pages.get(i);
+    }
+
+    private static COSDictionary copyPage(COSDictionary src) {
+        COSDictionary out = new COSDictionary();
+        for (Map.Entry<COSName, COSBase> e : src.entrySet()) {
+            if (!COSName.PARENT.equals(e.getKey())) {
+                out.setItem(e.getKey(), e.getValue());
+            }
+        }
+        if (src.getDictionaryObject(COSName.CONTENTS) instanceof COSArray contents) {
+            out.setItem(COSName.CONTENTS, copyArray(contents));
+        }
+        if (src.getDictionaryObject(COSName.RESOURCES) instanceof COSDictionary res) {
+            COSDictionary resCopy = copyDict(res);
+            if (res.getDictionaryObject(COSName.FONT) instanceof COSDictionary fonts) {
+                resCopy.setItem(COSName.FONT, copyDict(fonts));
+            }
+            out.setItem(COSName.RESOURCES, resCopy);
+        }
+        return out;
+    }
+
+    private static COSArray copyArray(COSArray src) {
+        COSArray out = new COSArray();
+        for (COSBase item : src) {
+            out.add(item);
+        }
+        return out;
+    }
+
+    private static COSDictionary copyDict(COSDictionary src) {
+        COSDictionary out = new COSDictionary();
+        for (Map.Entry<COSName, COSBase> e : src.entrySet()) {
+            out.setItem(e.getKey(), e.getValue());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,79 @@
+package com.stongel.pdfdrawer.service;
+
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursos que precisam viver até o {@link PDDocument} fechar — ex.: a TTF emprestada pela
+ * {@link FontLibrary}, que o save do PDFBox ainda usa para refazer o subset.
+ *
+ * Envolve a fábrica do cache de streams do documento: o PDFBox fecha o cache no close do
+ * documento, e junto com ele fecham os recursos registrados ({@link #closeWithDocument}),
+ * qualquer que seja o caminho (save, merge, erro). Um escopo por documento.
+ */
+final class DocumentScope implements RandomAccessStreamCache.StreamCacheCreateFunction {
+
+    private final RandomAccessStreamCache.StreamCacheCreateFunction delegate;
+    private final List<Closeable> resources = new ArrayList<>();
+    private boolean closed;
+
+    DocumentScope(RandomAccessStreamCache.StreamCacheCreateFunction delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public RandomAccessStreamCache create() throws IOException {
+        RandomAccessStreamCache cache = delegate.create();
+        return new RandomAccessStreamCache() {
+            @Override
+            public RandomAccess createBuffer() throws IOException {
+                return cache.createBuffer();
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    cache.close();
+                } finally {
+                    closeResources();
+                }
+            }
+        };
+    }
+
+    /** Registra {@code resource} para fechar junto com o documento (na hora, se ele já fechou). */
+    <T extends Closeable> T closeWithDocument(T resource) throws IOException {
+        synchronized (this) {
+            if (!closed) {
+                resources.add(resource);
+                return resource;
+            }
+        }
+        resource.close();
+        return resource;
+    }
+
+    private void closeResources() throws IOException {
+        List<Closeable> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(resources);
+            resources.clear();
+        }
+        IOException first = null;
+        for (Closeable c : toClose) {
+            try {
+                c.close();
+            } catch (IOException e) {
+                if (first == null) first = e; else first.addSuppressed(e);
+            }
+        }
+        if (first != null) throw first;
+    }
+}
@@ -0,0 +1,174 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.util.GlyphWidths;
+import jakarta.annotation.PreDestroy;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fontes TrueType embutidas, com os bytes em cache para o processo todo.
+ *
+ * Cada arquivo configurado no layout ("fonts.regular", caminho do classpath ou "file:...")
+ * é lido uma vez. Cada documento recebe a sua própria {@link TrueTypeFont}, parseada
+ * desses bytes (só o diretório de tabelas; a FontBox lê o resto sob demanda): o subset do
+ * PDFBox fecha a TTF usada, então uma instância não serve a dois documentos nem volta a
+ * ser usada depois do subset. O subset é feito uma única vez — pelo save do documento ou,
+ * se ele não vai passar pelo save (ex.: anexado a outro no merge), por
+ * {@link DocFont#embed()}. A TTF fecha junto com o documento ({@link DocumentScope}).
+ *
+ * Sem fonte configurada, ou se o arquivo não puder ser lido, usa Helvetica (WinAnsi), também
+ * uma instância por documento — caracteres fora dela saem como '?'.
+ *
+ * As larguras de glifo ({@link GlyphWidths}) são por arquivo, não por documento: cada fonte
+ * tem uma tabela para o processo todo, medida com uma instância só de medição (carregada da
+ * mesma forma, nunca salva), e todo {@link DocFont} dela recebe a mesma tabela já aquecida.
+ */
+@Component
+public class FontLibrary {
+    private static final Logger log = LoggerFactory.getLogger(FontLibrary.class);
+
+    /** Marca de arquivo indisponível (não tenta ler de novo a cada render). */
+    private static final byte[] MISSING = new byte[0];
+
+    private final ResourceLoader resources = new DefaultResourceLoader();
+    private final Map<String, byte[]> sources = new ConcurrentHashMap<>();
+    private final Map<String, GlyphWidths> widths = new ConcurrentHashMap<>();
+    private final GlyphWidths helveticaWidths = new GlyphWidths(new PDType1Font(Standard14Fonts.FontName.HELVETICA));
+    /** Documentos/TTFs das instâncias de medição, fechados no shutdown. */
+    private final List<Closeable> measuring = new CopyOnWriteArrayList<>();
+
+    /**
+     * Fonte para {@code doc}; {@code path} vazio/null = Helvetica. Quem chama fecha, depois
+     * do save ou do close de {@code doc} (ver {@link DocumentScope#closeWithDocument}).
+     */
+    public DocFont open(PDDocument doc, String path) throws IOException {
+        if (path == null || path.isBlank()) return helvetica();
+
+        byte[] bytes = sources.computeIfAbsent(path, this::load);
+        if (bytes == MISSING) return helvetica();
+
+        GlyphWidths gw = widths.computeIfAbsent(path, p -> measuringWidths(bytes));
+        TrueTypeFont ttf = parse(bytes);
+        try {
+            return new DocFont(PDType0Font.load(doc, ttf, true), gw, ttf);
+        } catch (IOException | RuntimeException e) {
+            ttf.close();
+            throw e;
+        }
+    }
+
+    /** Helvetica própria do documento: a instância do PDFBox guarda caches sem sincronização. */
+    private DocFont helvetica() {
+        return new DocFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), helveticaWidths, null);
+    }
+
+    /** Tabela de larguras do arquivo, medida com uma Type0 carregada como a dos documentos. */
+    private GlyphWidths measuringWidths(byte[] bytes) {
+        try {
+            PDDocument doc = new PDDocument();
+            measuring.add(doc);
+            TrueTypeFont ttf = parse(bytes);
+            measuring.add(ttf);
+            return new GlyphWidths(PDType0Font.load(doc, ttf, true));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        for (Closeable c : measuring) {
+            c.close();
+        }
+    }
+
+    private byte[] load(String path) {
+        Resource res = resources.getResource(path);
+        try (InputStream in = res.getInputStream()) {
+            byte[] bytes = in.readAllBytes();
+            parse(bytes).close(); // valida o arquivo já na primeira carga
+            log.info("Fonte {} carregada ({} bytes)", path, bytes.length);
+            return bytes;
+        } catch (IOException e) {
+            log.warn("Fonte {} indisponível; usando Helvetica: {}", path, e.getMessage());
+            return MISSING;
+        }
+    }
+
+    private static TrueTypeFont parse(byte[] bytes) throws IOException {
+        return new TTFParser().parse(new RandomAccessReadBuffer(bytes));
+    }
+
+    /** Fonte em uso por um documento. */
+    public static final class DocFont implements Closeable {
+        private final PDFont font;
+        private final GlyphWidths widths;
+        private TrueTypeFont ttf;
+
+        private DocFont(PDFont font, GlyphWidths widths, TrueTypeFont ttf) {
+            this.font = font;
+            this.widths = widths;
+            this.ttf = ttf;
+        }
+
+        public PDFont font() {
+            return font;
+        }
+
+        /** Larguras de {@link #font()}, compartilhadas com os outros documentos da mesma fonte. */
+        public GlyphWidths widths() {
+            return widths;
+        }
+
+        /**
+         * Outra instância da mesma fonte, sobre o mesmo dicionário do PDF, para desenhar em
+         * outra thread (mesmos nomes nos recursos, mesma saída); null quando a fonte não
+         * permite — a TTF com subset acumula os glifos usados no documento.
+         */
+        public PDFont workerCopy() throws IOException {
+            return font instanceof PDType1Font ? new PDType1Font(font.getCOSObject()) : null;
+        }
+
+        /**
+         * Embute agora o subset com os glifos usados até aqui (chamar depois do último
+         * texto). Só para documentos que não vão passar pelo save — ex.: anexados a outro
+         * no merge —, porque o save faria o subset de novo sobre a TTF já fechada.
+         */
+        public void embed() throws IOException {
+            if (ttf != null && font.willBeSubset()) {
+                font.subset();
+            }
+        }
+
+        /** Fecha a TTF (depois do save/close do documento). */
+        @Override
+        public synchronized void close() throws IOException {
+            if (ttf != null) {
+                TrueTypeFont t = ttf;
+                ttf = null;
+                t.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.stongel.pdfdrawer.service;
+
+/** Idempotency-Key reaproveitada com outro orçamento; vira 422. */
+public class IdempotencyConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
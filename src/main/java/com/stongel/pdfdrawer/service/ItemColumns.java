@@ -0,0 +1,85 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.ItemDto;
+import com.stongel.pdfdrawer.util.BR;
+
+import java.util.List;
+
+/**
+ * Itens de uma tabela em forma colunar: as {@value #COLS} células de cada linha já
+ * formatadas (pt-BR) num único array plano, montado uma vez por render a partir da
+ * lista de {@link ItemDto}.
+ *
+ * Paginação e desenho percorrem intervalos de linhas ({@link #page}) sobre o mesmo array,
+ * sem getters, boxing nem nova formatação por célula. Imutável depois de montado: várias
+ * páginas podem ser geradas em paralelo sobre a mesma instância.
+ */
+final class ItemColumns {
+
+    /** Células por linha, na ordem de {@link #xs}. */
+    static final int COLS = 8;
+
+    private static final ItemColumns EMPTY = new ItemColumns(new String[0], 0, 0);
+
+    private final String[] cells;
+    private final int from;
+    private final int to;
+
+    private ItemColumns(String[] cells, int from, int to) {
+        this.cells = cells;
+        this.from = from;
+        this.to = to;
+    }
+
+    static ItemColumns of(List<ItemDto> itens) {
+        if (itens == null || itens.isEmpty()) return EMPTY;
+        String[] cells = new String[itens.size() * COLS];
+        int off = 0;
+        for (ItemDto it : itens) {
+            format(it, cells, off);
+            off += COLS;
+        }
+        return new ItemColumns(cells, 0, itens.size());
+    }
+
+    int rows() {
+        return to - from;
+    }
+
+    /** Linhas da página {@code page} com {@code capacity} linhas por página (vazio se já terminou). */
+    ItemColumns page(int page, int capacity) {
+        long start = from + (long) page * capacity;
+        if (start >= to) return EMPTY;
+        return new ItemColumns(cells, (int) start, (int) Math.min(to, start + capacity));
+    }
+
+    /** Array plano de células; a linha {@code r} (0 = primeira deste intervalo) começa em {@link #offset}. */
+    String[] cells() {
+        return cells;
+    }
+
+    int offset(int row) {
+        return (from + row) * COLS;
+    }
+
+    /** Formata as células de um item em {@code dst[off .. off + COLS)}. */
+    static void format(ItemDto it, String[] dst, int off) {
+        dst[off]     = safe(it.getDescricao());
+        dst[off + 1] = safe(it.getComp());
+        dst[off + 2] = safe(it.getUnidade());
+        dst[off + 3] = BR.numero(it.getQuantidade());
+        dst[off + 4] = BR.moeda(it.getCusto());
+        dst[off + 5] = BR.moeda(it.getPrecoVenda());
+        dst[off + 6] = (it.getLimiteDesconto() != null) ? it.getLimiteDesconto().toString() + "%" : "-";
+        dst[off + 7] = BR.moeda(it.getPrecoKg());
+    }
+
+    /** Posições x das colunas, na mesma ordem das células. */
+    static float[] xs(Layout.Cols C) {
+        return new float[] {C.desc(), C.comp(), C.un(), C.qtd(), C.custo(), C.preco(), C.descLim(), C.precoKg()};
+    }
+
+    private static String safe(String s) {
+        return (s == null || s.isBlank()) ? "-" : s;
+    }
+}
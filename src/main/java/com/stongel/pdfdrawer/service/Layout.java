@@ -0,0 +1,156 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.stongel.pdfdrawer.util.Hashes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Coordenadas do template já compiladas a partir do "stongel-coords.json".
+ *
+ * Todos os valores são resolvidos uma única vez em {@link #compile(JsonNode)} (com os
+ * mesmos padrões de antes); no caminho de render só há leitura de campos primitivos.
+ * Imutável — um reload gera uma nova instância.
+ *
+ * {@code fontRegular}: TTF a embutir ("fonts.regular", classpath ou "file:..."); null = Helvetica.
+ */
+public record Layout(
+        int pageHeaderTotais,
+        int pageTables,
+        Empresa empresa,
+        Obra obra,
+        Cols cols,
+        Table materiais,
+        Table servicos,
+        Totais totais,
+        List<Probe> probesPage1,
+        List<Probe> probesPageTables,
+        String fontRegular,
+        String contentHash
+) {
+
+    public record Empresa(float x, float yRazao, float yContato, float yCnpj, float yTel, float yEmail) {}
+
+    public record Obra(float xLabel, float xVal, float y, float maxW) {}
+
+    public record Cols(float desc, float comp, float un, float qtd, float custo, float preco, float descLim, float precoKg) {}
+
+    /**
+     * Área de linhas de uma tabela: primeira linha, passo e limite inferior.
+     * {@code capacity} = linhas que cabem numa página (mesma aritmética do desenho).
+     */
+    public record Table(float yFirst, float rowStep, float yMin, int capacity) {
+
+        public static Table of(float yFirst, float rowStep, float yMin) {
+            return new Table(yFirst, rowStep, yMin, capacity(yFirst, rowStep, yMin));
+        }
+
+        private static final int MAX_ROWS_PER_PAGE = 10_000;
+
+        /** A primeira linha sempre é desenhada; as seguintes enquanto y >= yMin. */
+        private static int capacity(float yFirst, float rowStep, float yMin) {
+            if (!(rowStep > 0f)) return Integer.MAX_VALUE;
+            int n = 1;
+            for (float y = yFirst - rowStep; y >= yMin && n < MAX_ROWS_PER_PAGE; y -= rowStep) {
+                n++;
+            }
+            return n;
+        }
+    }
+
+    public record Totais(float xLabel, float xVal, float yTop, float step) {}
+
+    /** Alfinete de calibração: cruz + rótulo em (x,y). */
+    public record Probe(float x, float y, String label) {}
+
+    /** Compila o JSON de coordenadas (campos ausentes assumem os padrões). */
+    public static Layout compile(JsonNode cfg) {
+        float rowStep = getF(cfg, "tabelas.materiais.rowStep", 16f);
+        return new Layout(
+                getInt(cfg, "pageIndexes.headerTotais", 0),
+                getInt(cfg, "pageIndexes.tables", 6),
+                new Empresa(
+                        getF(cfg, "empresa.x", 60f),
+                        getF(cfg, "empresa.yRazao", 740f),
+                        getF(cfg, "empresa.yContato", 725f),
+                        getF(cfg, "empresa.yCnpj", 725f),
+                        getF(cfg, "empresa.yTel", 710f),
+                        getF(cfg, "empresa.yEmail", 695f)),
+                new Obra(
+                        getF(cfg, "obra.xLabel", 60f),
+                        getF(cfg, "obra.xVal", 100f),
+                        getF(cfg, "obra.y", 665f),
+                        getF(cfg, "obra.maxW", 460f)),
+                new Cols(
+                        getF(cfg, "tabelas.cols.desc", 60f),
+                        getF(cfg, "tabelas.cols.comp", 300f),
+                        getF(cfg, "tabelas.cols.un", 340f),
+                        getF(cfg, "tabelas.cols.qtd", 380f),
+                        getF(cfg, "tabelas.cols.custo", 420f),
+                        getF(cfg, "tabelas.cols.preco", 470f),
+                        getF(cfg, "tabelas.cols.descLim", 530f),
+                        getF(cfg, "tabelas.cols.precoKg", 585f)),
+                // Passo único (materiais.rowStep) para as duas tabelas, como sempre foi
+                Table.of(
+                        getF(cfg, "tabelas.materiais.yFirst", 598f),
+                        rowStep,
+                        getF(cfg, "tabelas.materiais.yMin", 380f)),
+                Table.of(
+                        getF(cfg, "tabelas.servicos.yFirst", 328f),
+                        rowStep,
+                        getF(cfg, "tabelas.servicos.yMin", 190f)),
+                new Totais(
+                        getF(cfg, "totais.xLabel", 420f),
+                        getF(cfg, "totais.xVal", 560f),
+                        getF(cfg, "totais.yTop", 200f),
+                        getF(cfg, "totais.step", 16f)),
+                probes(cfg.path("probes").path("page1")),
+                probes(cfg.path("probes").path("pageTables")),
+                getS(cfg, "fonts.regular"),
+                Hashes.sha256Hex(cfg.toString().getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    // ----------------- Util (somente na compilação) -----------------
+
+    private static List<Probe> probes(JsonNode arr) {
+        if (arr == null || !arr.isArray()) return List.of();
+        List<Probe> out = new ArrayList<>();
+        for (Iterator<JsonNode> it = arr.elements(); it.hasNext();) {
+            JsonNode p = it.next();
+            float x = (float) p.path("x").asDouble();
+            float y = (float) p.path("y").asDouble();
+            String label = p.path("label").asText("(" + (int)x + "," + (int)y + ")");
+            out.add(new Probe(x, y, label));
+        }
+        return List.copyOf(out);
+    }
+
+    private static int getInt(JsonNode n, String path, int def) {
+        JsonNode j = at(n, path);
+        return (j != null && j.isInt()) ? j.asInt() : def;
+    }
+
+    private static float getF(JsonNode n, String path, float def) {
+        JsonNode j = at(n, path);
+        return (j != null && j.isNumber()) ? (float) j.asDouble() : def;
+    }
+
+    private static String getS(JsonNode n, String path) {
+        JsonNode j = at(n, path);
+        return (j != null && j.isTextual() && !j.asText().isBlank()) ? j.asText() : null;
+    }
+
+    private static JsonNode at(JsonNode n, String path) {
+        String[] ps = path.split("\\.");
+        JsonNode cur = n;
+        for (String p : ps) {
+            if (cur == null) return null;
+            cur = cur.get(p);
+        }
+        return cur;
+    }
+}
@@ -0,0 +1,101 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stongel.pdfdrawer.util.FileWatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Guarda o {@link Layout} compilado numa referência atômica.
+ *
+ * Fonte: "pdf.layout.path" (arquivo no disco) ou, se vazio, "templates/stongel-coords.json"
+ * do classpath. Quando a fonte é um arquivo, um {@link FileWatcher} recompila e troca o
+ * layout a cada alteração — a calibração continua funcionando sem reiniciar.
+ */
+@Component
+public class LayoutHolder {
+    private static final Logger log = LoggerFactory.getLogger(LayoutHolder.class);
+
+    static final String LAYOUT_PATH = "templates/stongel-coords.json";
+    private static final String FALLBACK = "{\"pageIndexes\":{\"headerTotais\":0,\"tables\":6}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicReference<Layout> current = new AtomicReference<>();
+    private final Resource resource;
+    private FileWatcher watcher;
+
+    public LayoutHolder(@Value("${pdf.layout.path:}") String layoutPath) {
+        this.resource = layoutPath.isBlank()
+                ? new ClassPathResource(LAYOUT_PATH)
+                : new FileSystemResource(layoutPath);
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+        try {
+            if (resource.isFile()) {
+                Path file = resource.getFile().toPath();
+                watcher = FileWatcher.watch(file, this::reload);
+                log.info("Observando alterações em {}", file);
+            }
+        } catch (IOException e) {
+            log.warn("Hot reload do layout desativado: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watcher != null) watcher.close();
+    }
+
+    /** Layout atual (leitura de uma referência, sem parse). */
+    public Layout current() {
+        return current.get();
+    }
+
+    /**
+     * Recompila o JSON e publica o novo layout. A configuração mínima só entra na primeira
+     * carga; num hot reload com JSON inválido (ex.: arquivo salvo pela metade) o layout
+     * atual continua valendo até a próxima alteração.
+     */
+    public Layout reload() {
+        Layout layout;
+        try {
+            try (InputStream is = resource.getInputStream()) {
+                layout = Layout.compile(mapper.readTree(is));
+            }
+        } catch (Exception e) {
+            Layout previous = current.get();
+            if (previous != null) {
+                log.warn("Falha ao recarregar {}; mantendo o layout atual: {}", resource, e.getMessage());
+                return previous;
+            }
+            log.warn("Falha ao ler {}; usando configuração mínima: {}", resource, e.getMessage());
+            layout = fallback();
+        }
+        current.set(layout);
+        log.debug("Layout recompilado a partir de {}", resource);
+        return layout;
+    }
+
+    private Layout fallback() {
+        try {
+            return Layout.compile(mapper.readTree(FALLBACK));
+        } catch (IOException ex) {
+            throw new RuntimeException("Falha ao carregar stongel-coords.json", ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.stongel.pdfdrawer.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tamanho esperado do PDF por versão de template/layout e faixa de itens (potências de 2),
+ * como média móvel exponencial dos tamanhos já gerados. Serve para reservar de uma vez os
+ * blocos de saída; errar só custa um bloco a mais ou a menos.
+ */
+final class OutputSizePredictor {
+
+    private static final double ALPHA = 0.2;
+    private static final int MAX_KEYS = 1024;
+
+    private final ConcurrentHashMap<String, Double> averages = new ConcurrentHashMap<>();
+
+    /** Bytes esperados (0 = sem histórico). */
+    long predict(String versionKey, int items) {
+        Double avg = averages.get(key(versionKey, items));
+        return avg == null ? 0L : (long) Math.ceil(avg);
+    }
+
+    void record(String versionKey, int items, long bytes) {
+        if (averages.size() >= MAX_KEYS) {
+            averages.clear(); // versões antigas de template não voltam; recomeça o histórico
+        }
+        averages.merge(key(versionKey, items), (double) bytes, (prev, now) -> prev + ALPHA * (now - prev));
+    }
+
+    private static String key(String versionKey, int items) {
+        return versionKey + '#' + (32 - Integer.numberOfLeadingZeros(items));
+    }
+}
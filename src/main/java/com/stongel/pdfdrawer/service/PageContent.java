@@ -0,0 +1,145 @@
+package com.stongel.pdfdrawer.service;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+/**
+ * Conteúdo de página gerado fora do documento (num buffer próprio) e anexado depois.
+ *
+ * Equivale a um PDPageContentStream em APPEND com resetContext: o conteúdo original fica
+ * entre "q" e "Q" e o novo vem em seguida. A geração não altera o documento — desde que as
+ * fontes já estejam registradas nos recursos da página, páginas diferentes podem ser
+ * geradas em paralelo; {@link #attach} deve ser chamado em ordem, numa thread só.
+ */
+final class PageContent {
+
+    @FunctionalInterface
+    interface Drawer {
+        void draw(PDPageContentStream cs) throws IOException;
+    }
+
+    private static final byte[] SAVE = deflate("q\n".getBytes(StandardCharsets.US_ASCII), Deflater.DEFAULT_COMPRESSION);
+    private static final byte[] RESTORE = "Q\n".getBytes(StandardCharsets.US_ASCII);
+
+    private PageContent() {}
+
+    /** Executa {@code drawer} sobre {@code resources} e devolve o stream já comprimido (Flate, {@code level}). */
+    static byte[] generate(PDDocument doc, PDResources resources, Drawer drawer, int level) throws IOException {
+        Builder b = open(doc, resources);
+        drawer.draw(b.stream());
+        return b.finish(level);
+    }
+
+    /** Conteúdo aberto para ser desenhado aos poucos (ex.: linhas chegando em streaming). */
+    static Builder open(PDDocument doc, PDResources resources) throws IOException {
+        return new Builder(doc, resources);
+    }
+
+    static final class Builder {
+        private final ByteArrayOutputStream buf = new ByteArrayOutputStream(8192);
+        private final PDPageContentStream cs;
+
+        private Builder(PDDocument doc, PDResources resources) throws IOException {
+            buf.write(RESTORE);
+            PDAppearanceStream form = new PDAppearanceStream(new COSStream());
+            form.setResources(resources);
+            cs = new PDPageContentStream(doc, form, buf);
+        }
+
+        PDPageContentStream stream() {
+            return cs;
+        }
+
+        /** Fecha o stream e devolve o conteúdo comprimido (Flate, {@code level}). */
+        byte[] finish(int level) throws IOException {
+            cs.close();
+            return deflate(buf.toByteArray(), level);
+        }
+    }
+
+    /** Acrescenta o conteúdo gerado ao /Contents da página. */
+    static void attach(PDDocument doc, PDPage page, byte[] deflated) throws IOException {
+        COSDictionary dict = page.getCOSObject();
+        COSBase contents = dict.getDictionaryObject(COSName.CONTENTS);
+        COSArray array;
+        if (contents instanceof COSArray a) {
+            array = a;
+        } else {
+            array = new COSArray();
+            if (contents instanceof COSStream s) {
+                array.add(s);
+            }
+            dict.setItem(COSName.CONTENTS, array);
+        }
+        array.add(0, rawStream(doc, SAVE));
+        array.add(rawStream(doc, deflated));
+    }
+
+    /**
+     * Marca para o save incremental tudo o que {@link #attach} e o registro de fontes
+     * alteram: a página, /Contents, /Resources (e /Font) e a cadeia de /Parent até a raiz
+     * (/Kids e /Count mudam quando há páginas de continuação).
+     */
+    static void markUpdated(PDPage page) {
+        COSDictionary dict = page.getCOSObject();
+        dict.setNeedToBeUpdated(true);
+        if (dict.getDictionaryObject(COSName.CONTENTS) instanceof COSArray contents) {
+            contents.setNeedToBeUpdated(true);
+        }
+        PDResources res = page.getResources();
+        if (res != null) {
+            res.getCOSObject().setNeedToBeUpdated(true);
+            if (res.getCOSObject().getDictionaryObject(COSName.FONT) instanceof COSDictionary fonts) {
+                fonts.setNeedToBeUpdated(true);
+            }
+        }
+        for (COSBase p = dict.getDictionaryObject(COSName.PARENT);
+             p instanceof COSDictionary parent;
+             p = parent.getDictionaryObject(COSName.PARENT)) {
+            parent.setNeedToBeUpdated(true);
+            if (parent.getDictionaryObject(COSName.KIDS) instanceof COSArray kids) {
+                kids.setNeedToBeUpdated(true);
+            }
+        }
+    }
+
+    private static COSStream rawStream(PDDocument doc, byte[] deflated) throws IOException {
+        COSStream s = doc.getDocument().createCOSStream();
+        try (OutputStream os = s.createRawOutputStream()) {
+            os.write(deflated);
+        }
+        s.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        s.setNeedToBeUpdated(true);
+        return s;
+    }
+
+    static byte[] deflate(byte[] data, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
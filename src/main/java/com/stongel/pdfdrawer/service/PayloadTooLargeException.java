@@ -0,0 +1,10 @@
+package com.stongel.pdfdrawer.service;
+
+/** Corpo da requisição acima do limite de ingestão; vira 413. */
+public class PayloadTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,28 +1,238 @@
 package com.stongel.pdfdrawer.service;
 
 import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Render com cache e coalescência: requisições simultâneas com o mesmo hash canônico
+ * compartilham um único render em andamento ("single-flight") e recebem os mesmos bytes.
+ *
+ * O render compartilhado roda numa virtual thread própria, desacoplado de quem o pediu:
+ * cada requisição só espera pelo resultado (no máximo "pdf.render.coalesce-wait", depois
+ * 503 + Retry-After), e um cliente que desiste ou é interrompido não cancela o render
+ * para os demais. Métrica: pdf.render.coalesced.
+ */
 @Service
 public class PdfRenderService {
     private static final Logger log = LoggerFactory.getLogger(PdfRenderService.class);
     private final StongelTemplateRenderer renderer;
+    private final RenderCache cache;
+    private final TemplateRegistry templates;
+    private final RenderAdmission admission;
+    private final long coalesceWaitNanos;
+    private final long retryAfterSeconds;
+    private final Counter coalesced;
+    private final long ingestMaxBytes;
+    private final Path ingestDir;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Rendered>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService flights = Executors.newVirtualThreadPerTaskExecutor();
 
-    public PdfRenderService(StongelTemplateRenderer renderer) {
+    public PdfRenderService(StongelTemplateRenderer renderer, RenderCache cache,
+                            TemplateRegistry templates, RenderAdmission admission,
+                            MeterRegistry registry,
+                            @Value("${pdf.render.coalesce-wait:30s}") Duration coalesceWait,
+                            @Value("${pdf.render.retry-after:1s}") Duration retryAfter,
+                            @Value("${pdf.ingest.max-bytes:1GB}") DataSize ingestMaxBytes,
+                            @Value("${pdf.ingest.dir:}") String ingestDir) {
         this.renderer = renderer;
+        this.cache = cache;
+        this.templates = templates;
+        this.admission = admission;
+        this.coalesceWaitNanos = coalesceWait.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.coalesced = Counter.builder("pdf.render.coalesced")
+                .description("Requisições atendidas por um render idêntico já em andamento")
+                .register(registry);
+        this.ingestMaxBytes = ingestMaxBytes.toBytes();
+        this.ingestDir = ingestDir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "pdf-ingest")
+                : Path.of(ingestDir);
+    }
+
+    /**
+     * PDF pronto + a chave de cache (ETag) da versão de template/layout com que ele foi de
+     * fato renderizado — pode diferir da chave pedida se houve hot reload no meio.
+     */
+    public record Rendered(String key, ChunkedBytes pdf) {}
+
+    @PreDestroy
+    void shutdown() {
+        flights.shutdownNow();
     }
 
-    public byte[] renderFromTemplate(BudgetDto dto) throws Exception {
+    public ChunkedBytes renderFromTemplate(BudgetDto dto) throws Exception {
         if (dto == null) {
             log.warn("DTO nulo recebido!");
-            return new byte[0];
+            return ChunkedBytes.of(new byte[0]);
+        }
+        return renderFromTemplate(dto, cacheKey(dto)).pdf();
+    }
+
+    /**
+     * Render usando uma chave já calculada por {@link #cacheKey(BudgetDto)} (consulta ao cache
+     * e coalescência). O resultado é guardado com a chave da variante reservada pelo render.
+     */
+    public Rendered renderFromTemplate(BudgetDto dto, String key) throws Exception {
+        ChunkedBytes cached = cache.get(key);
+        if (cached != null) {
+            log.debug("Cache hit {}", key);
+            return new Rendered(key, cached);
+        }
+
+        CompletableFuture<Rendered> created = new CompletableFuture<>();
+        CompletableFuture<Rendered> flight = inFlight.putIfAbsent(key, created);
+        if (flight == null) {
+            flight = created;
+            created.whenComplete((pdf, e) -> inFlight.remove(key, created));
+            try {
+                flights.execute(() -> {
+                    try (TemplateRegistry.Lease lease = templates.acquire(dto.getTemplateId())) {
+                        logPayload(dto);
+                        String rendered = cache.key(dto, lease.versionKey());
+                        ChunkedBytes pdf = admission.run(() -> renderer.renderFromTemplate(dto, lease));
+                        cache.put(rendered, pdf);
+                        created.complete(new Rendered(rendered, pdf));
+                    } catch (Throwable e) {
+                        created.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                created.completeExceptionally(e);
+            }
+        } else {
+            coalesced.increment();
+            log.debug("Render em andamento reaproveitado {}", key);
+        }
+        return await(flight);
+    }
+
+    /** Espera o render compartilhado sem cancelá-lo (timeout/interrupção afetam só quem espera). */
+    private Rendered await(CompletableFuture<Rendered> flight) throws Exception {
+        try {
+            return flight.get(coalesceWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RenderOverloadedException("Render ainda em andamento", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Render gravado direto em {@code out} (ex.: arquivo de um job), servido do cache
+     * quando possível. Ocupa uma vaga de render sem prazo de espera (ver {@link RenderAdmission}).
+     */
+    public void renderTo(BudgetDto dto, String key, OutputStream out) throws Exception {
+        ChunkedBytes cached = cache.get(key);
+        if (cached != null) {
+            log.debug("Cache hit {}", key);
+            cached.writeTo(out);
+            return;
         }
+        logPayload(dto);
+        admission.runBackground(() -> {
+            renderer.renderTo(dto, out);
+            return null;
+        });
+    }
+
+    /**
+     * Hash canônico do orçamento + versões do template e do layout da variante pedida.
+     * Mesmo conteúdo, mesmo PDF: serve de chave de cache e de ETag.
+     */
+    public String cacheKey(BudgetDto dto) throws Exception {
+        return cache.key(dto, templates.versionKey(dto.getTemplateId()));
+    }
+
+    /**
+     * Documento preenchido mas ainda não serializado, para gravação direta na resposta
+     * (modo streaming). A vaga de render vale só até o fim do desenho: o save escreve no
+     * socket e um cliente lento não pode segurar a vaga. Quem chama deve fechá-lo.
+     */
+    public PDDocument renderDocument(BudgetDto dto) throws Exception {
+        if (dto == null) {
+            throw new IllegalArgumentException("Payload vazio");
+        }
+        logPayload(dto);
+        return admission.run(() -> renderer.render(dto));
+    }
+
+    /**
+     * Render com ingestão em streaming: o JSON é lido item a item enquanto as tabelas são
+     * desenhadas, sem materializar o {@link BudgetDto}. Sem cache/ETag (não há payload
+     * completo para o hash). Quem chama deve fechar o documento.
+     *
+     * O corpo é copiado para um arquivo temporário ("pdf.ingest.dir", até "pdf.ingest.max-bytes",
+     * senão 413) antes de pedir a vaga, e a vaga é devolvida antes do save: nem um upload nem
+     * um download lento seguram uma vaga de render.
+     */
+    public PDDocument renderStreaming(InputStream json, String templateId) throws Exception {
+        Path spooled = spool(json);
+        try {
+            return admission.run(() -> {
+                try (InputStream in = Files.newInputStream(spooled)) {
+                    return renderer.renderStreaming(in, templateId);
+                }
+            });
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private Path spool(InputStream json) throws IOException {
+        Files.createDirectories(ingestDir);
+        Path file = Files.createTempFile(ingestDir, "ingest-", ".json");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buf = new byte[64 * 1024];
+            long total = 0;
+            for (int n; (n = json.read(buf)) != -1; ) {
+                total += n;
+                if (total > ingestMaxBytes) {
+                    throw new PayloadTooLargeException("Payload maior que " + ingestMaxBytes + " bytes");
+                }
+                out.write(buf, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /** Grava o documento com o modo de saída configurado (incremental/compressão). */
+    public void save(PDDocument doc, OutputStream out) throws IOException {
+        renderer.save(doc, out);
+    }
+
+    private static void logPayload(BudgetDto dto) {
         log.debug("Empresa: {}", dto.getEmpresa() != null ? dto.getEmpresa().getRazaoSocial() : "(sem empresa)");
         log.debug("Obra: {}", dto.getObra());
         log.debug("Materiais: {}", dto.getMateriais() != null ? dto.getMateriais().size() : 0);
         log.debug("Serviços: {}", dto.getServicos() != null ? dto.getServicos().size() : 0);
-        return renderer.renderFromTemplate(dto);
     }
 }
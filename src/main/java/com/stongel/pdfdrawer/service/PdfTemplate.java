@@ -0,0 +1,309 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.util.Hashes;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Template PDF parseado uma única vez (cópia mestre).
+ *
+ * A cópia mestre nunca é alterada depois de {@link #parse(byte[])}: todos os objetos
+ * alcançáveis pelas páginas já estão resolvidos e os bytes crus (já comprimidos) de cada
+ * stream ficam em memória. Cada requisição recebe, via {@link #newDocument()}, um
+ * {@link PDDocument} independente montado a partir desse grafo — sem parse, apenas
+ * cópia de dicionários e dos bytes crus —, então pode ser escrito à vontade.
+ * Streams que vieram sem filtro são comprimidos (Flate) uma vez aqui, para que nenhum
+ * save precise comprimi-los de novo.
+ *
+ * Instâncias são imutáveis e seguras para uso concorrente. A cópia mestre tem contagem de
+ * referências: o dono (registro/engine) segura uma, cada render em andamento outra
+ * ({@link #retain()}/{@link #release()}); quando o dono a descarta e o último render
+ * termina, o documento mestre é fechado.
+ */
+public final class PdfTemplate {
+
+    private final byte[] source;
+    private final String contentHash;
+    private final PDDocument master;
+    private final List<COSDictionary> originalPages;
+    private final List<COSDictionary> pages;
+    private final Map<COSStream, byte[]> rawStreams;
+    private final Set<COSStream> precompressed;
+    private final long retainedBytes;
+    private final AtomicInteger refs = new AtomicInteger(1); // 1 = referência do dono
+
+    /** Streams sem filtro a partir deste tamanho são pré-comprimidos no parse. */
+    private static final int PRECOMPRESS_MIN_BYTES = 256;
+
+    private PdfTemplate(byte[] source, PDDocument master, List<COSDictionary> originalPages,
+                        List<COSDictionary> pages, Map<COSStream, byte[]> rawStreams,
+                        Set<COSStream> precompressed) {
+        this.source = source;
+        this.contentHash = Hashes.sha256Hex(source);
+        this.master = master;
+        this.originalPages = originalPages;
+        this.pages = pages;
+        this.rawStreams = rawStreams;
+        this.precompressed = precompressed;
+        long bytes = source.length;
+        for (byte[] b : rawStreams.values()) {
+            bytes += b.length;
+        }
+        this.retainedBytes = bytes;
+    }
+
+    /** Faz o parse completo do template (executar uma vez por carga/reload). */
+    public static PdfTemplate parse(byte[] source) throws IOException {
+        PDDocument master = Loader.loadPDF(source);
+        try {
+            List<COSDictionary> originals = new ArrayList<>();
+            List<COSDictionary> flat = new ArrayList<>();
+            for (PDPage page : master.getPages()) {
+                originals.add(page.getCOSObject());
+                flat.add(flatten(page));
+            }
+            Map<COSStream, byte[]> raw = new IdentityHashMap<>();
+            Set<COSStream> deflated = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<COSBase, Boolean> seen = new IdentityHashMap<>();
+            for (COSDictionary p : flat) {
+                collect(p, raw, deflated, seen);
+            }
+            return new PdfTemplate(source, master,
+                    Collections.unmodifiableList(originals),
+                    Collections.unmodifiableList(flat),
+                    Collections.unmodifiableMap(raw),
+                    Collections.unmodifiableSet(deflated));
+        } catch (IOException | RuntimeException e) {
+            master.close();
+            throw e;
+        }
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /** Bytes originais do template (somente leitura — não alterar). */
+    public byte[] getSource() {
+        return source;
+    }
+
+    /** SHA-256 dos bytes do template (identifica a versão carregada). */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /** Versão PDF do template. */
+    public float getVersion() {
+        return master.getVersion();
+    }
+
+    /** Memória aproximada mantida por esta instância (bytes do arquivo + streams em cache). */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /** Reserva a instância para um render; false se já foi descartada (busque a atual de novo). */
+    public boolean retain() {
+        for (;;) {
+            int r = refs.get();
+            if (r == 0) return false;
+            if (refs.compareAndSet(r, r + 1)) return true;
+        }
+    }
+
+    /** Libera uma reserva (ou a referência do dono); a última fecha o documento mestre. */
+    public void release() {
+        if (refs.decrementAndGet() == 0) {
+            try {
+                master.close();
+            } catch (IOException e) {
+                // nada a fazer: o grafo em memória já não é mais usado
+            }
+        }
+    }
+
+    /** Novo documento independente com todas as páginas do template. Quem chama fecha. */
+    public PDDocument newDocument() throws IOException {
+        return newDocument(IOUtils.createMemoryOnlyStreamCache());
+    }
+
+    /** Idem, com os streams do documento em {@code streamCache} (heap, disco ou misto). */
+    public PDDocument newDocument(RandomAccessStreamCache.StreamCacheCreateFunction streamCache) throws IOException {
+        PDDocument doc = new PDDocument(streamCache);
+        try {
+            doc.setVersion(master.getVersion());
+            Copier copier = new Copier(doc);
+            List<COSDictionary> targets = new ArrayList<>(pages.size());
+            // Pré-registra as páginas para que referências /P de anotações apontem para as cópias
+            for (int i = 0; i < pages.size(); i++) {
+                COSDictionary target = new COSDictionary();
+                copier.done.put(originalPages.get(i), target);
+                copier.done.put(pages.get(i), target);
+                targets.add(target);
+            }
+            for (int i = 0; i < pages.size(); i++) {
+                copier.copyEntries(pages.get(i), targets.get(i));
+                doc.addPage(new PDPage(targets.get(i)));
+            }
+            return doc;
+        } catch (IOException | RuntimeException e) {
+            doc.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Documento aberto diretamente sobre os bytes originais (sem cópia; objetos carregados
+     * sob demanda), para ser salvo com {@link PDDocument#saveIncremental}. Quem chama fecha.
+     */
+    public PDDocument openForUpdate() throws IOException {
+        return openForUpdate(IOUtils.createMemoryOnlyStreamCache());
+    }
+
+    /** Idem, com os streams novos/alterados em {@code streamCache}. */
+    public PDDocument openForUpdate(RandomAccessStreamCache.StreamCacheCreateFunction streamCache) throws IOException {
+        return Loader.loadPDF(source, "", null, null, streamCache);
+    }
+
+    // ----------------- Internos -----------------
+
+    /** Cópia rasa do dicionário da página com os atributos herdados resolvidos e sem /Parent. */
+    private static COSDictionary flatten(PDPage page) {
+        COSDictionary src = page.getCOSObject();
+        COSDictionary flat = new COSDictionary();
+        for (Map.Entry<COSName, COSBase> e : src.entrySet()) {
+            if (!COSName.PARENT.equals(e.getKey())) {
+                flat.setItem(e.getKey(), e.getValue());
+            }
+        }
+        flat.setItem(COSName.MEDIA_BOX, page.getMediaBox());
+        flat.setItem(COSName.CROP_BOX, page.getCropBox());
+        flat.setItem(COSName.RESOURCES, page.getResources());
+        flat.setInt(COSName.ROTATE, page.getRotation());
+        return flat;
+    }
+
+    /** Percorre o grafo resolvendo referências e guardando os bytes crus dos streams. */
+    private static void collect(COSBase base, Map<COSStream, byte[]> raw, Set<COSStream> deflated,
+                                Map<COSBase, Boolean> seen) throws IOException {
+        if (base instanceof COSObject o) {
+            base = o.getObject();
+        }
+        if (base == null || seen.put(base, Boolean.TRUE) != null) return;
+
+        if (base instanceof COSDictionary d) {
+            if (d instanceof COSStream s) {
+                byte[] bytes;
+                try (InputStream in = s.createRawInputStream()) {
+                    bytes = in.readAllBytes();
+                }
+                // Sem filtro (e não é XMP, que deve ficar legível): comprime uma vez, se compensar
+                if (!s.containsKey(COSName.FILTER) && bytes.length >= PRECOMPRESS_MIN_BYTES
+                        && !COSName.METADATA.equals(s.getCOSName(COSName.TYPE))) {
+                    byte[] packed = PageContent.deflate(bytes, Deflater.BEST_COMPRESSION);
+                    if (packed.length < bytes.length) {
+                        bytes = packed;
+                        deflated.add(s);
+                    }
+                }
+                raw.put(s, bytes);
+            }
+            for (Map.Entry<COSName, COSBase> e : d.entrySet()) {
+                if (!COSName.PARENT.equals(e.getKey())) {
+                    collect(e.getValue(), raw, deflated, seen);
+                }
+            }
+        } else if (base instanceof COSArray a) {
+            for (COSBase item : a) {
+                collect(item, raw, deflated, seen);
+            }
+        }
+    }
+
+    /** Cópia profunda do grafo mestre para um documento de destino. */
+    private final class Copier {
+        private final PDDocument target;
+        private final Map<COSBase, COSBase> done = new IdentityHashMap<>();
+
+        private Copier(PDDocument target) {
+            this.target = target;
+        }
+
+        private COSBase copy(COSBase base) throws IOException {
+            if (base instanceof COSObject o) {
+                base = o.getObject();
+            }
+            if (base == null) return COSNull.NULL;
+
+            COSBase prev = done.get(base);
+            if (prev != null) return prev;
+
+            if (base instanceof COSStream s) {
+                COSStream out = target.getDocument().createCOSStream();
+                done.put(s, out);
+                copyEntries(s, out);
+                if (precompressed.contains(s)) {
+                    out.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+                }
+                byte[] bytes = rawStreams.get(s);
+                if (bytes != null) {
+                    try (OutputStream os = out.createRawOutputStream()) {
+                        os.write(bytes);
+                    }
+                }
+                return out;
+            }
+            if (base instanceof COSDictionary d) {
+                COSDictionary out = new COSDictionary();
+                done.put(d, out);
+                copyEntries(d, out);
+                return out;
+            }
+            if (base instanceof COSArray a) {
+                COSArray out = new COSArray();
+                done.put(a, out);
+                for (COSBase item : a) {
+                    out.add(copy(item));
+                }
+                return out;
+            }
+            if (base instanceof COSString str) {
+                return new COSString(str.getBytes());
+            }
+            // COSName, COSInteger, COSFloat, COSBoolean, COSNull: imutáveis, podem ser compartilhados
+            return base;
+        }
+
+        private void copyEntries(COSDictionary src, COSDictionary dst) throws IOException {
+            for (Map.Entry<COSName, COSBase> e : src.entrySet()) {
+                if (!COSName.PARENT.equals(e.getKey())) {
+                    dst.setItem(e.getKey(), copy(e.getValue()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.stongel.pdfdrawer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controle de admissão na frente do renderer.
+ *
+ * Com virtual threads, aceitar requisições é barato; o que precisa de limite é o render
+ * (CPU + alocação). Há "pdf.render.slots" vagas (0 = nº de CPUs) para TODO render do
+ * processo — requisições, lote, jobs assíncronos e aquecimento — e a vaga vale até o PDF
+ * ser gravado (no modo streaming, só até o fim do desenho: o save vai direto para o socket
+ * e a velocidade do cliente não pode segurar a vaga).
+ *
+ * Requisições ({@link #acquire}) esperam no máximo "pdf.render.max-wait" numa fila de até
+ * "pdf.render.max-queue" (0 = 4 × vagas); fora disso, {@link RenderOverloadedException} na
+ * hora — o cliente recebe 503 rápido em vez de empilhar carga no GC. Lote e jobs
+ * ({@link #acquireBackground}) disputam as mesmas vagas, mas esperam sem prazo e fora dessa
+ * fila: já são limitados pelos próprios pools ("pdf.batch.threads", "pdf.jobs.threads") e
+ * uma entrada de lote ou job já aceito não deve falhar só por espera.
+ *
+ * Métricas: pdf.render.queue.depth, pdf.render.slots.active, pdf.render.queue.wait,
+ * pdf.render.rejected.
+ */
+@Component
+public class RenderAdmission {
+
+    private final Semaphore slots;
+    private final int slotCount;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public RenderAdmission(MeterRegistry registry,
+                           @Value("${pdf.render.slots:0}") int slots,
+                           @Value("${pdf.render.max-queue:0}") int maxQueue,
+                           @Value("${pdf.render.max-wait:2s}") Duration maxWait,
+                           @Value("${pdf.render.retry-after:1s}") Duration retryAfter) {
+        this.slotCount = slots > 0 ? slots : Runtime.getRuntime().availableProcessors();
+        this.slots = new Semaphore(slotCount, true);
+        this.maxQueue = maxQueue > 0 ? maxQueue : slotCount * 4;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        Gauge.builder("pdf.render.queue.depth", waiting, AtomicInteger::get)
+                .description("Requisições aguardando vaga de render")
+                .register(registry);
+        int total = slotCount;
+        Gauge.builder("pdf.render.slots.active", this.slots, s -> total - s.availablePermits())
+                .description("Vagas de render em uso")
+                .register(registry);
+        this.waitTimer = Timer.builder("pdf.render.queue.wait")
+                .description("Espera por uma vaga de render")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejectedQueueFull = Counter.builder("pdf.render.rejected").tag("reason", "queue_full").register(registry);
+        this.rejectedTimeout = Counter.builder("pdf.render.rejected").tag("reason", "timeout").register(registry);
+    }
+
+    /** Vaga de render ocupada; {@link #close()} a devolve (uma vez só). */
+    public final class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {}
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    /** Executa {@code task} ocupando uma vaga de render (requisição). */
+    public <T> T run(Callable<T> task) throws Exception {
+        Permit permit = acquire();
+        try {
+            return task.call();
+        } finally {
+            permit.close();
+        }
+    }
+
+    /** Executa {@code task} ocupando uma vaga de render (lote/job: espera sem prazo). */
+    public <T> T runBackground(Callable<T> task) throws Exception {
+        Permit permit = acquireBackground();
+        try {
+            return task.call();
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Ocupa uma vaga para uma requisição, com fila e espera limitadas.
+     *
+     * @throws RenderOverloadedException fila cheia ou espera esgotada
+     */
+    public Permit acquire() throws InterruptedException {
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new RenderOverloadedException("Fila de renderização cheia", retryAfterSeconds);
+        }
+        long t0 = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejectedTimeout.increment();
+            throw new RenderOverloadedException("Tempo de espera por renderização esgotado", retryAfterSeconds);
+        }
+        return new Permit();
+    }
+
+    /** Ocupa uma vaga para lote/job, esperando o quanto for preciso. */
+    public Permit acquireBackground() throws InterruptedException {
+        slots.acquire();
+        return new Permit();
+    }
+}
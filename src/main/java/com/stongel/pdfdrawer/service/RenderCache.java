@@ -0,0 +1,191 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import com.stongel.pdfdrawer.util.Hashes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Cache de PDFs prontos endereçado por conteúdo.
+ *
+ * Chave = SHA-256 do orçamento serializado de forma canônica (propriedades em ordem
+ * alfabética, sem nulos) + hash do template + hash do layout; a mesma chave vira o ETag.
+ * Em memória: LRU limitado pelo total de bytes ("pdf.cache.max-bytes", 0 desliga), com os
+ * PDFs nos blocos em que foram gravados ({@link ChunkedBytes}), servidos sem cópia.
+ * Opcionalmente, o que sai da memória é gravado em "pdf.cache.dir" (também limitado,
+ * removendo os arquivos mais antigos) e volta para a memória quando pedido de novo.
+ */
+@Component
+public class RenderCache {
+    private static final Logger log = LoggerFactory.getLogger(RenderCache.class);
+
+    private final ObjectMapper canonical = JsonMapper.builder()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    private final long maxBytes;
+    private final Path dir;
+    private final long diskMaxBytes;
+
+    private final LinkedHashMap<String, ChunkedBytes> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>();
+    private long diskBytes;
+
+    public RenderCache(@Value("${pdf.cache.max-bytes:64MB}") DataSize maxBytes,
+                       @Value("${pdf.cache.dir:}") String dir,
+                       @Value("${pdf.cache.disk-max-bytes:1GB}") DataSize diskMaxBytes) throws IOException {
+        this.maxBytes = maxBytes.toBytes();
+        this.diskMaxBytes = diskMaxBytes.toBytes();
+        this.dir = dir.isBlank() ? null : Path.of(dir);
+        if (this.dir != null) {
+            Files.createDirectories(this.dir);
+            indexDisk();
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /** Chave canônica do orçamento para uma versão de template/layout ({@code versionKey}). */
+    public String key(BudgetDto dto, String versionKey) {
+        try {
+            byte[] json = canonical.writeValueAsBytes(dto);
+            byte[] versions = ("|" + versionKey).getBytes(StandardCharsets.US_ASCII);
+            byte[] all = new byte[json.length + versions.length];
+            System.arraycopy(json, 0, all, 0, json.length);
+            System.arraycopy(versions, 0, all, json.length, versions.length);
+            return Hashes.sha256Hex(all);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** PDF em cache (memória ou disco) ou null. */
+    public ChunkedBytes get(String key) {
+        if (!isEnabled()) return null;
+        synchronized (this) {
+            ChunkedBytes hit = memory.get(key);
+            if (hit != null || !disk.containsKey(key)) return hit;
+        }
+        ChunkedBytes fromDisk = readDisk(key);
+        if (fromDisk != null) put(key, fromDisk);
+        return fromDisk;
+    }
+
+    public void put(String key, ChunkedBytes pdf) {
+        if (!isEnabled() || pdf.size() > maxBytes) return;
+        Map<String, ChunkedBytes> evicted = new LinkedHashMap<>();
+        synchronized (this) {
+            ChunkedBytes prev = memory.put(key, pdf);
+            if (prev != null) memoryBytes -= prev.size();
+            memoryBytes += pdf.size();
+
+            Iterator<Map.Entry<String, ChunkedBytes>> it = memory.entrySet().iterator();
+            while (memoryBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, ChunkedBytes> eldest = it.next();
+                it.remove();
+                memoryBytes -= eldest.getValue().size();
+                evicted.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+        if (dir != null) {
+            evicted.forEach(this::spill);
+        }
+    }
+
+    // ----------------- Disco -----------------
+
+    private void spill(String key, ChunkedBytes pdf) {
+        synchronized (this) {
+            if (disk.containsKey(key)) return;
+        }
+        Path file = dir.resolve(key + ".pdf");
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                pdf.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cache: falha ao gravar {}: {}", file, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            disk.put(key, pdf.size());
+            diskBytes += pdf.size();
+            Iterator<Map.Entry<String, Long>> it = disk.entrySet().iterator();
+            while (diskBytes > diskMaxBytes && it.hasNext()) {
+                Map.Entry<String, Long> oldest = it.next();
+                it.remove();
+                diskBytes -= oldest.getValue();
+                deleteQuietly(dir.resolve(oldest.getKey() + ".pdf"));
+            }
+        }
+    }
+
+    private ChunkedBytes readDisk(String key) {
+        try {
+            return ChunkedBytes.of(Files.readAllBytes(dir.resolve(key + ".pdf")));
+        } catch (IOException e) {
+            synchronized (this) {
+                Long len = disk.remove(key);
+                if (len != null) diskBytes -= len;
+            }
+            return null;
+        }
+    }
+
+    /** Reaproveita o que já estava no diretório (mais antigos primeiro). */
+    private void indexDisk() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".pdf"))
+                    .sorted(Comparator.comparingLong(RenderCache::lastModified))
+                    .forEach(p -> {
+                        String name = p.getFileName().toString();
+                        long len = p.toFile().length();
+                        disk.put(name.substring(0, name.length() - 4), len);
+                        diskBytes += len;
+                    });
+        }
+        log.info("Cache em disco {}: {} arquivos, {} bytes", dir, disk.size(), diskBytes);
+    }
+
+    private static long lastModified(Path p) {
+        return p.toFile().lastModified();
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.debug("Cache: falha ao remover {}", p, e);
+        }
+    }
+}
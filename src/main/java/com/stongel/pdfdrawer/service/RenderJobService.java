@@ -0,0 +1,238 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Render assíncrono: o pedido vira um job, executado num pool limitado
+ * ("pdf.jobs.threads", fila de até "pdf.jobs.max-pending"; excedente = 503), e o PDF é
+ * gravado em "pdf.jobs.dir" para ser baixado depois. Resultados expiram "pdf.jobs.ttl"
+ * após ficarem prontos (arquivo e registro são apagados pela limpeza periódica).
+ *
+ * Repetições do mesmo pedido devolvem o mesmo job: pela Idempotency-Key, quando enviada,
+ * ou pelo hash canônico do orçamento (o mesmo da chave de cache). Jobs que falharam não
+ * são reaproveitados — a repetição cria um novo.
+ *
+ * Os jobs ficam só em memória: ao subir, o diretório é esvaziado (arquivos de execuções
+ * anteriores não teriam como ser encontrados).
+ */
+@Service
+public class RenderJobService {
+    private static final Logger log = LoggerFactory.getLogger(RenderJobService.class);
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    /** Job de render; campos mutáveis são publicados por volatile. */
+    public static final class Job {
+        private final String id;
+        private final String dedupKey;
+        private final String payloadKey;
+        private final Instant createdAt = Instant.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile long bytes;
+        private volatile String message;
+        private volatile Path file;
+
+        private Job(String id, String dedupKey, String payloadKey) {
+            this.id = id;
+            this.dedupKey = dedupKey;
+            this.payloadKey = payloadKey;
+        }
+
+        public String getId() { return id; }
+        public Status getStatus() { return status; }
+        public Instant getCreatedAt() { return createdAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public long getBytes() { return bytes; }
+        public String getMessage() { return message; }
+        /** Arquivo do PDF (só com status DONE). */
+        public Path getFile() { return file; }
+    }
+
+    private final PdfRenderService service;
+    private final Path dir;
+    private final Duration ttl;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> byKey = new ConcurrentHashMap<>();
+
+    public RenderJobService(PdfRenderService service,
+                            @Value("${pdf.jobs.dir:}") String dir,
+                            @Value("${pdf.jobs.threads:2}") int threads,
+                            @Value("${pdf.jobs.max-pending:100}") int maxPending,
+                            @Value("${pdf.jobs.ttl:1h}") Duration ttl,
+                            @Value("${pdf.render.retry-after:1s}") Duration retryAfter) throws IOException {
+        this.service = service;
+        this.dir = dir.isBlank() ? Path.of(System.getProperty("java.io.tmpdir"), "pdf-jobs") : Path.of(dir);
+        this.ttl = ttl;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        int n = Math.max(1, threads);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxPending)),
+                r -> {
+                    Thread t = new Thread(r, "pdf-job-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        Files.createDirectories(this.dir);
+        purgeDir();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Enfileira o render (ou devolve o job já existente para a mesma chave).
+     *
+     * @throws IdempotencyConflictException a chave já foi usada com outro orçamento
+     * @throws RenderOverloadedException    fila de jobs cheia
+     */
+    public Job submit(BudgetDto dto, String idempotencyKey) throws Exception {
+        if (dto == null) {
+            throw new IllegalArgumentException("Payload vazio");
+        }
+        String payloadKey = service.cacheKey(dto);
+        String dedupKey = (idempotencyKey != null && !idempotencyKey.isBlank())
+                ? "key:" + idempotencyKey.trim()
+                : "payload:" + payloadKey;
+
+        Job[] created = new Job[1];
+        Job job = byKey.compute(dedupKey, (k, prev) -> {
+            if (prev != null && prev.status != Status.FAILED) return prev;
+            created[0] = new Job(UUID.randomUUID().toString(), k, payloadKey);
+            return created[0];
+        });
+        if (created[0] == null) {
+            if (!job.payloadKey.equals(payloadKey)) {
+                throw new IdempotencyConflictException("Idempotency-Key já usada com outro orçamento");
+            }
+            log.debug("Job {} reaproveitado ({})", job.id, dedupKey);
+            return job;
+        }
+
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, dto));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            byKey.remove(dedupKey, job);
+            throw new RenderOverloadedException("Fila de jobs cheia", retryAfterSeconds);
+        }
+        log.debug("Job {} enfileirado", job.id);
+        return job;
+    }
+
+    /** Intervalo sugerido ao cliente entre consultas/repetições ("pdf.render.retry-after"). */
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /** Job pelo id, ou null (inexistente ou expirado). */
+    public Job get(String id) {
+        return jobs.get(id);
+    }
+
+    private void run(Job job, BudgetDto dto) {
+        job.status = Status.RUNNING;
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(dir, job.id, ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                service.renderTo(dto, job.payloadKey, out);
+            }
+            Path file = dir.resolve(job.id + ".pdf");
+            moveIntoPlace(tmp, file);
+            job.bytes = Files.size(file);
+            job.file = file;
+            job.finishedAt = Instant.now();
+            job.status = Status.DONE;
+            log.debug("Job {} pronto: {} bytes", job.id, job.bytes);
+        } catch (Exception e) {
+            log.warn("Job {}: falha ao renderizar", job.id, e);
+            if (tmp != null) deleteQuietly(tmp);
+            job.message = String.valueOf(e.getMessage());
+            job.finishedAt = Instant.now();
+            job.status = Status.FAILED;
+        }
+    }
+
+    /**
+     * Renomeia o temporário para o nome final. Atômico quando o sistema de arquivos permite;
+     * senão, move simples — o arquivo só é publicado no job depois do move, então ninguém
+     * lê um PDF pela metade.
+     */
+    private static void moveIntoPlace(Path tmp, Path file) throws IOException {
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            log.debug("Jobs: move atômico indisponível em {}; usando move simples", file.getParent());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Remove jobs terminados há mais de "pdf.jobs.ttl" e seus arquivos. */
+    @Scheduled(fixedDelayString = "${pdf.jobs.cleanup-interval:1m}")
+    public void cleanup() {
+        Instant limit = Instant.now().minus(ttl);
+        int removed = 0;
+        for (Job job : jobs.values()) {
+            Instant finished = job.finishedAt;
+            if (finished != null && finished.isBefore(limit)) {
+                jobs.remove(job.id, job);
+                byKey.remove(job.dedupKey, job);
+                if (job.file != null) deleteQuietly(job.file);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Jobs: {} expirados removidos", removed);
+        }
+    }
+
+    private void purgeDir() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.endsWith(".pdf") || name.endsWith(".tmp");
+            }).forEach(RenderJobService::deleteQuietly);
+        }
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.debug("Jobs: falha ao remover {}", p, e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.stongel.pdfdrawer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.io.ScratchFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Onde ficam os streams de cada documento em render ("pdf.render.memory.mode").
+ *
+ *  - HEAP: tudo no heap (padrão do PDFBox);
+ *  - MIXED: até "pdf.render.memory.heap-budget" por documento no heap; o que passar vai
+ *    para arquivos temporários ({@link ScratchFile}) num diretório próprio do render, sob
+ *    "pdf.render.memory.dir". O diretório é apagado quando o documento é fechado.
+ *
+ * Métricas: pdf.render.spill{result=spilled|heap} e pdf.render.spill.bytes.
+ */
+@Component
+public class RenderMemory {
+    private static final Logger log = LoggerFactory.getLogger(RenderMemory.class);
+
+    public enum Mode { HEAP, MIXED }
+
+    private final Mode mode;
+    private final long heapBudget;
+    private final Path dir;
+    private final Counter spilled;
+    private final Counter inHeap;
+    private final DistributionSummary spillBytes;
+
+    public RenderMemory(MeterRegistry registry,
+                        @Value("${pdf.render.memory.mode:HEAP}") Mode mode,
+                        @Value("${pdf.render.memory.heap-budget:16MB}") DataSize heapBudget,
+                        @Value("${pdf.render.memory.dir:}") String dir) throws IOException {
+        this.mode = mode;
+        this.heapBudget = heapBudget.toBytes();
+        this.dir = dir.isBlank() ? Path.of(System.getProperty("java.io.tmpdir"), "pdf-scratch") : Path.of(dir);
+        if (mode == Mode.MIXED) {
+            Files.createDirectories(this.dir);
+        }
+        this.spilled = Counter.builder("pdf.render.spill").tag("result", "spilled")
+                .description("Renders que passaram do orçamento de heap e usaram disco")
+                .register(registry);
+        this.inHeap = Counter.builder("pdf.render.spill").tag("result", "heap").register(registry);
+        this.spillBytes = DistributionSummary.builder("pdf.render.spill.bytes")
+                .baseUnit("bytes")
+                .description("Bytes gravados em disco por render que transbordou")
+                .register(registry);
+    }
+
+    /** Fábrica do cache de streams para um novo documento (um por render). */
+    public RandomAccessStreamCache.StreamCacheCreateFunction streamCache() {
+        if (mode == Mode.HEAP) {
+            return IOUtils.createMemoryOnlyStreamCache();
+        }
+        return () -> {
+            Path own = Files.createTempDirectory(dir, "render-");
+            try {
+                return new Tracked(new ScratchFile(MemoryUsageSetting.setupMixed(heapBudget).setTempDir(own.toFile())), own);
+            } catch (IOException | RuntimeException e) {
+                deleteTree(own);
+                throw e;
+            }
+        };
+    }
+
+    /** ScratchFile que, ao fechar (junto com o documento), mede o que foi para o disco e apaga o diretório. */
+    private final class Tracked implements RandomAccessStreamCache {
+        private final ScratchFile scratch;
+        private final Path own;
+
+        private Tracked(ScratchFile scratch, Path own) {
+            this.scratch = scratch;
+            this.own = own;
+        }
+
+        @Override
+        public RandomAccess createBuffer() throws IOException {
+            return scratch.createBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            long bytes = sizeOf(own);
+            try {
+                scratch.close();
+            } finally {
+                deleteTree(own);
+                if (bytes > 0) {
+                    spilled.increment();
+                    spillBytes.record(bytes);
+                } else {
+                    inHeap.increment();
+                }
+            }
+        }
+    }
+
+    private static long sizeOf(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(p -> p.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    log.debug("Scratch: falha ao remover {}", p, e);
+                }
+            });
+        } catch (IOException e) {
+            log.debug("Scratch: falha ao listar {}", dir, e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.stongel.pdfdrawer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do render, por fase.
+ *
+ *   pdf.render.phase{phase=template|layout|header|tables|draw|save}  timer (histograma)
+ *       header/tables = geração do conteúdo de cada página (podem correr em paralelo);
+ *       draw = tempo de parede da geração + anexação de todas as páginas
+ *   pdf.render.rows{kind=drawn|overflow}  linhas desenhadas / que foram para páginas de continuação
+ *   pdf.render.items                      itens por orçamento (materiais + serviços)
+ *   pdf.render.output.bytes               tamanho do PDF gerado
+ *
+ * Não há métrica de bytes alocados por render: as requisições rodam em virtual threads, onde
+ * getCurrentThreadAllocatedBytes() devolve -1, e parte do render (páginas em paralelo, save
+ * do streaming) corre em outras threads. Para alocação use o RendererBenchmark com "-prof gc".
+ *
+ * Os medidores são criados uma vez; por requisição é só System.nanoTime() e um record().
+ * Desde a paginação por capacidade nenhuma linha é descartada em yMin: "overflow" conta
+ * as que continuaram em outra página.
+ */
+@Component
+public class RenderMetrics {
+
+    /** Fases do render, na ordem em que acontecem. */
+    public enum Phase { TEMPLATE, LAYOUT, HEADER, TABLES, DRAW, SAVE }
+
+    private final Timer[] phases = new Timer[Phase.values().length];
+    private final Counter rowsDrawn;
+    private final Counter rowsOverflow;
+    private final DistributionSummary items;
+    private final DistributionSummary outputBytes;
+
+    public RenderMetrics(MeterRegistry registry) {
+        for (Phase p : Phase.values()) {
+            phases[p.ordinal()] = Timer.builder("pdf.render.phase")
+                    .tag("phase", p.name().toLowerCase(Locale.ROOT))
+                    .description("Tempo de cada fase do render")
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        rowsDrawn = Counter.builder("pdf.render.rows").tag("kind", "drawn").register(registry);
+        rowsOverflow = Counter.builder("pdf.render.rows").tag("kind", "overflow").register(registry);
+        items = DistributionSummary.builder("pdf.render.items")
+                .description("Itens por orçamento")
+                .publishPercentileHistogram()
+                .register(registry);
+        outputBytes = DistributionSummary.builder("pdf.render.output.bytes")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /** Inicia a medição de um render na thread atual. */
+    public Sample start() {
+        return new Sample();
+    }
+
+    /** Medição de um render; só {@link #record} pode ser chamado de outras threads. */
+    public final class Sample {
+        private long t = System.nanoTime();
+
+        private Sample() {}
+
+        /** Fecha a fase {@code phase} (tempo desde a fase anterior). */
+        public void phase(Phase phase) {
+            long now = System.nanoTime();
+            phases[phase.ordinal()].record(now - t, TimeUnit.NANOSECONDS);
+            t = now;
+        }
+
+        /** Duração medida à parte (ex.: geração de uma página em outra thread); thread-safe. */
+        public void record(Phase phase, long nanos) {
+            phases[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void rows(int total, int overflow) {
+            items.record(total);
+            rowsDrawn.increment(total);
+            if (overflow > 0) rowsOverflow.increment(overflow);
+        }
+
+        /** Fim do render; {@code size} < 0 quando o tamanho não é conhecido (streaming). */
+        public void finish(long size) {
+            if (size >= 0) outputBytes.record(size);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.stongel.pdfdrawer.service;
+
+/** Sem vaga para renderizar agora (fila cheia ou espera esgotada); vira 503 + Retry-After. */
+public class RenderOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public RenderOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,85 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aquecimento na subida: renderiza orçamentos sintéticos de vários tamanhos
+ * ("pdf.warmup.items", "pdf.warmup.rounds" rodadas), passando também pelo JSON, para que
+ * template, layout, fontes, classes do PDFBox e o JIT do caminho quente já estejam prontos
+ * na primeira requisição real.
+ *
+ * Roda como ApplicationRunner: o Spring Boot só passa a readiness para ACCEPTING_TRAFFIC
+ * (ApplicationReadyEvent) depois que os runners terminam, então /actuator/health/readiness
+ * fica fora até o fim do aquecimento (liveness já responde). Falhas só são registradas —
+ * não impedem a subida.
+ *
+ * Com "pdf.warmup.exit-after=true" a aplicação encerra ao terminar: é a execução de treino
+ * do arquivo AppCDS (perfil "cds" do pom), que assim inclui as classes do render.
+ */
+@Component
+public class RenderWarmup implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(RenderWarmup.class);
+
+    private final StongelTemplateRenderer renderer;
+    private final RenderAdmission admission;
+    private final ObjectMapper mapper;
+    private final ApplicationContext context;
+    private final boolean enabled;
+    private final int[] sizes;
+    private final int rounds;
+    private final boolean exitAfter;
+
+    public RenderWarmup(StongelTemplateRenderer renderer, RenderAdmission admission,
+                        ObjectMapper mapper, ApplicationContext context,
+                        @Value("${pdf.warmup.enabled:true}") boolean enabled,
+                        @Value("${pdf.warmup.items:0,50,500}") int[] sizes,
+                        @Value("${pdf.warmup.rounds:3}") int rounds,
+                        @Value("${pdf.warmup.exit-after:false}") boolean exitAfter) {
+        this.renderer = renderer;
+        this.admission = admission;
+        this.mapper = mapper;
+        this.context = context;
+        this.enabled = enabled;
+        this.sizes = sizes;
+        this.rounds = rounds;
+        this.exitAfter = exitAfter;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+        if (exitAfter) {
+            log.info("Aquecimento: encerrando (pdf.warmup.exit-after)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void warmUp() {
+        long t0 = System.nanoTime();
+        int renders = 0;
+        try {
+            for (int r = 0; r < rounds; r++) {
+                for (int n : sizes) {
+                    byte[] json = mapper.writeValueAsBytes(SyntheticBudgets.sample(n));
+                    BudgetDto dto = mapper.readValue(json, BudgetDto.class);
+                    admission.runBackground(() -> renderer.renderFromTemplate(dto));
+                    renders++;
+                }
+            }
+            log.info("Aquecimento concluído: {} renders em {} ms", renders, (System.nanoTime() - t0) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Aquecimento interrompido após {} renders: {}", renders, e.getMessage());
+        }
+    }
+}
@@ -1,50 +1,66 @@
 package com.stongel.pdfdrawer.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stongel.pdfdrawer.dto.BudgetDto;
 import com.stongel.pdfdrawer.dto.ItemDto;
 import com.stongel.pdfdrawer.dto.TotaisDto;
 import com.stongel.pdfdrawer.util.BR;
-import org.apache.pdfbox.Loader;
+import com.stongel.pdfdrawer.util.ChunkPool;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import com.stongel.pdfdrawer.util.ChunkedOutputStream;
+import com.stongel.pdfdrawer.util.GlyphWidths;
+import com.stongel.pdfdrawer.util.TextRun;
+import jakarta.annotation.PreDestroy;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.apache.pdfbox.util.Matrix;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 import java.awt.*;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Preenche:
  *  - Página de cabeçalho (header/totais), normalmente página 1 (index 0)
- *  - Página de tabelas (materiais/serviços), normalmente página 7 (index 6)
+ *  - Página de tabelas (materiais/serviços), normalmente página 7 (index 6); o que não
+ *    couber acima de yMin continua em páginas clonadas logo após ela
  *
- * Lê coordenadas de "src/main/resources/templates/stongel-coords.json" a cada chamada.
- * O template base é "src/main/resources/templates/STONGEL - PDF.pdf".
+ * Coordenadas vêm de "src/main/resources/templates/stongel-coords.json", compiladas num
+ * {@link Layout} pelo {@link LayoutHolder} (recompilado quando o arquivo muda).
+ * O template base é "src/main/resources/templates/STONGEL - PDF.pdf", parseado uma vez
+ * pelo {@link TemplateEngine}; cada chamada trabalha numa cópia independente.
+ * Com {@code templateId} no orçamento, template e layout vêm da variante no {@link TemplateRegistry}.
  *
  * Recursos:
  *  - Apenas DADOS (cabeçalhos/títulos já estão no template)
  *  - Origem normalizada para CropBox
+ *  - Um único objeto de texto (BT/ET) por região, via {@link TextRun}
+ *  - Conteúdo de cada página gerado à parte ({@link PageContent}), em paralelo quando possível
+ *  - Saída completa (save) ou incremental sobre os bytes do template ("pdf.output.incremental")
+ *  - Fonte TTF do layout ("fonts.regular") embutida como subset, via {@link FontLibrary}
+ *  - Streams do documento no heap ou, acima de um orçamento, em disco ({@link RenderMemory})
+ *  - Ingestão em streaming ({@link #renderStreaming}): itens desenhados à medida que chegam
  *  - Grade de calibração: -Dpdf.grid=1  (opções: -Dpdf.gridStep=10, -Dpdf.gridMajor=100)
  *  - Probes (alfinetes): definidos no JSON para marcar (x,y) exatos
  */
 @Component
 public class StongelTemplateRenderer {
 
-    // Tipografia
-    private static final PDFont FONT_REG = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    // Tipografia (a fonte vem do layout via FontLibrary, uma instância por documento)
     // private static final PDFont FONT_B   = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
     private static final float FONT_H      = 10f;
     // private static final float FONT_H_BOLD = 12f;
@@ -54,113 +70,479 @@ public class StongelTemplateRenderer {
     private static final float   GRID_STEP  = getSysF("pdf.gridStep", 10f);
     private static final float   GRID_MAJOR = getSysF("pdf.gridMajor", 100f);
 
-    public byte[] renderFromTemplate(BudgetDto dto) throws Exception {
+    private final TemplateRegistry registry;
+    private final RenderMetrics metrics;
+    private final FontLibrary fonts;
+    private final BudgetStreamReader streamReader;
+    private final RenderMemory memory;
+    private final ChunkPool chunks;
+    private final OutputSizePredictor sizes = new OutputSizePredictor();
+    private final ForkJoinPool pagePool;
+    private final boolean incremental;
+    private final CompressionProfile compression;
+
+    public StongelTemplateRenderer(TemplateRegistry registry, RenderMetrics metrics,
+                                   FontLibrary fonts, BudgetStreamReader streamReader, RenderMemory memory,
+                                   @Value("${pdf.render.page-parallelism:0}") int pageParallelism,
+                                   @Value("${pdf.output.incremental:false}") boolean incremental,
+                                   @Value("${pdf.output.compression:PACKED}") CompressionProfile compression,
+                                   @Value("${pdf.output.pool-max-bytes:16MB}") DataSize poolMaxBytes) {
+        this.registry = registry;
+        this.metrics = metrics;
+        this.fonts = fonts;
+        this.streamReader = streamReader;
+        this.memory = memory;
+        this.chunks = new ChunkPool(poolMaxBytes.toBytes());
+        this.incremental = incremental;
+        this.compression = compression;
+        int n = pageParallelism > 0 ? pageParallelism : Runtime.getRuntime().availableProcessors();
+        this.pagePool = n > 1 ? new ForkJoinPool(n) : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pagePool != null) pagePool.shutdownNow();
+    }
 
-        // 1) Carrega o template
-        byte[] templateBytes;
-        try (InputStream is = new ClassPathResource("templates/STONGEL - PDF.pdf").getInputStream()) {
-            templateBytes = is.readAllBytes();
+    /**
+     * PDF pronto, em blocos. O save escreve em blocos do pool ({@link ChunkedOutputStream}),
+     * reservados pela previsão de tamanho, e eles são entregues como estão — sem o array
+     * final; só o último bloco, parcial, é copiado no tamanho exato.
+     */
+    public ChunkedBytes renderFromTemplate(BudgetDto dto) throws Exception {
+        try (TemplateRegistry.Lease lease = registry.acquire(dto.getTemplateId())) {
+            return renderFromTemplate(dto, lease);
         }
+    }
 
-        // 2) Carrega coordenadas do JSON (reload a cada chamada)
-        JsonNode cfg = loadDynamicConfig();
-
-        // Páginas alvo (0-based)
-        int PAGE_IDX_HEADER_TOTAIS = getInt(cfg, "pageIndexes.headerTotais", 0);
-        int PAGE_IDX_TABELAS       = getInt(cfg, "pageIndexes.tables", 6);
-
-        // Empresa / Obra (página header)
-        float X_EMPRESA   = getF(cfg, "empresa.x", 60f);
-        float Y_EMP_RAZAO = getF(cfg, "empresa.yRazao", 740f);
-        float Y_EMP_CONTATO  = getF(cfg, "empresa.yContato", 725f);
-        float Y_EMP_CNPJ  = getF(cfg, "empresa.yCnpj", 725f);
-        float Y_EMP_TEL   = getF(cfg, "empresa.yTel", 710f);
-        float Y_EMP_EMAIL = getF(cfg, "empresa.yEmail", 695f);
-
-        float X_OBRA_LABEL = getF(cfg, "obra.xLabel", 60f);
-        float X_OBRA_VAL   = getF(cfg, "obra.xVal", 100f);
-        float Y_OBRA       = getF(cfg, "obra.y", 665f);
-        float OBRA_MAX_W   = getF(cfg, "obra.maxW", 460f);
-
-        // Tabela (página de tabelas) — apenas DADOS
-        float X_COL_DESC     = getF(cfg, "tabelas.cols.desc", 60f);
-        float X_COL_COMP     = getF(cfg, "tabelas.cols.comp", 300f);
-        float X_COL_UN       = getF(cfg, "tabelas.cols.un", 340f);
-        float X_COL_QTD      = getF(cfg, "tabelas.cols.qtd", 380f);
-        float X_COL_CUSTO    = getF(cfg, "tabelas.cols.custo", 420f);
-        float X_COL_PRECO    = getF(cfg, "tabelas.cols.preco", 470f);
-        float X_COL_DESC_LIM = getF(cfg, "tabelas.cols.descLim", 530f);
-        float X_COL_PRECO_KG = getF(cfg, "tabelas.cols.precoKg", 585f);
-
-        float Y_MAT_FIRSTLINE = getF(cfg, "tabelas.materiais.yFirst", 598f);
-        float Y_SRV_FIRSTLINE = getF(cfg, "tabelas.servicos.yFirst", 328f);
-        float Y_ROW_STEP      = getF(cfg, "tabelas.materiais.rowStep", 16f);
-        float Y_MIN_MAT       = getF(cfg, "tabelas.materiais.yMin", 380f);
-        float Y_MIN_SRV       = getF(cfg, "tabelas.servicos.yMin", 190f);
-
-        // Totais (página header)
-        float X_TOT_LABEL = getF(cfg, "totais.xLabel", 420f);
-        float X_TOT_VAL   = getF(cfg, "totais.xVal", 560f);
-        float Y_TOT_TOP   = getF(cfg, "totais.yTop", 200f);
-        float Y_TOT_STEP  = getF(cfg, "totais.step", 16f);
-
-        try (PDDocument doc = Loader.loadPDF(templateBytes)) {
-
-            // ===== Página de Cabeçalho/Totais =====
-            PDPage pageHeader = doc.getPage(PAGE_IDX_HEADER_TOTAIS);
-            try (PDPageContentStream cs = new PDPageContentStream(doc, pageHeader, AppendMode.APPEND, true, true)) {
-                normalizeToCropBox(cs, pageHeader);
-
-                if (DEBUG_GRID) {
-                    drawGrid(cs, pageHeader, GRID_STEP, GRID_MAJOR);
-                    drawProbes(cs, cfg.path("probes").path("page1"));
-                }
+    /** Idem, com a variante já reservada por quem chama (a mesma da chave de cache). */
+    public ChunkedBytes renderFromTemplate(BudgetDto dto, TemplateRegistry.Lease lease) throws Exception {
+        RenderMetrics.Sample sample = metrics.start();
+        String versionKey = lease.versionKey();
+        int items = size(dto.getMateriais()) + size(dto.getServicos());
+        ChunkedBytes pdf;
+        ChunkedOutputStream out = new ChunkedOutputStream(chunks, sizes.predict(versionKey, items));
+        try (PDDocument doc = fill(dto, lease, sample, false)) {
+            save(doc, out);
+            pdf = out.detach();
+        } finally {
+            out.release();
+        }
+        sizes.record(versionKey, items, pdf.size());
+        sample.phase(RenderMetrics.Phase.SAVE);
+        sample.finish(pdf.size());
+        return pdf;
+    }
 
-                // Empresa
-                var emp = dto.getEmpresa();
-                BR.drawText(cs, FONT_REG,   FONT_H, X_EMPRESA, Y_EMP_RAZAO,  emp != null ? emp.getRazaoSocial() : "-");
-                BR.drawText(cs, FONT_REG, FONT_H,      X_EMPRESA, Y_EMP_CNPJ,   emp != null ? emp.getCnpj()        : "-");
-                BR.drawText(cs, FONT_REG, FONT_H,      X_EMPRESA, Y_EMP_CONTATO,   emp != null ? emp.getContato()        : "-");
-                BR.drawText(cs, FONT_REG, FONT_H,      X_EMPRESA, Y_EMP_TEL,    emp != null ? emp.getTelefone()    : "-");
-                BR.drawText(cs, FONT_REG, FONT_H,      X_EMPRESA, Y_EMP_EMAIL,  emp != null ? emp.getEmail()       : "-");
+    /** Renderiza e grava direto em {@code out} (ex.: o output stream da resposta). */
+    public void renderTo(BudgetDto dto, OutputStream out) throws Exception {
+        RenderMetrics.Sample sample = metrics.start();
+        try (PDDocument doc = render(dto, sample)) {
+            save(doc, out);
+        }
+        sample.phase(RenderMetrics.Phase.SAVE);
+        sample.finish(-1);
+    }
+
+    /** Documento já preenchido, ainda não serializado (para o {@link #save}). Quem chama deve fechá-lo. */
+    public PDDocument render(BudgetDto dto) throws Exception {
+        RenderMetrics.Sample sample = metrics.start();
+        PDDocument doc = render(dto, sample, false);
+        sample.finish(-1);
+        return doc;
+    }
 
-                // Obra
-                BR.drawText(cs, FONT_REG,   FONT_H, X_OBRA_LABEL, Y_OBRA, "Obra:");
-                drawParagraph(cs, FONT_REG, FONT_H, X_OBRA_VAL, Y_OBRA, OBRA_MAX_W, safe(dto.getObra()), 12f);
+    /**
+     * Documento completo, com a fonte já embutida como subset, para ser anexado a outro
+     * (merge) em vez de passar pelo save — o save refaria o subset. Quem chama deve fechá-lo.
+     */
+    public PDDocument renderForMerge(BudgetDto dto) throws Exception {
+        RenderMetrics.Sample sample = metrics.start();
+        PDDocument doc = render(dto, sample, true);
+        sample.finish(-1);
+        return doc;
+    }
+
+    private PDDocument render(BudgetDto dto, RenderMetrics.Sample sample) throws Exception {
+        return render(dto, sample, false);
+    }
 
-                // Totais
-                drawTotals(cs, dto.getTotais(), X_TOT_LABEL, X_TOT_VAL, Y_TOT_TOP, Y_TOT_STEP);
+    private PDDocument render(BudgetDto dto, RenderMetrics.Sample sample, boolean embedFonts) throws Exception {
+        // Variante pedida (templateId) reservada até o fim do render
+        try (TemplateRegistry.Lease lease = registry.acquire(dto.getTemplateId())) {
+            return fill(dto, lease, sample, embedFonts);
+        }
+    }
+
+    private PDDocument fill(BudgetDto dto, TemplateRegistry.Lease lease, RenderMetrics.Sample sample,
+                            boolean embedFonts) throws Exception {
+
+        // 1) Template já parseado (cópia mestre) — cada render trabalha numa cópia
+        PdfTemplate template = lease.template();
+        DocumentScope scope = new DocumentScope(memory.streamCache());
+        PDDocument doc = incremental
+                ? template.openForUpdate(scope)
+                : template.newDocument(scope);
+        sample.phase(RenderMetrics.Phase.TEMPLATE);
+
+        try {
+            // 2) Layout já compilado da mesma variante
+            Layout L = lease.layout();
+            sample.phase(RenderMetrics.Phase.LAYOUT);
+
+            // Fonte do layout (TTF embutida como subset no save) ou Helvetica; a TTF do
+            // documento fecha junto com ele
+            FontLibrary.DocFont docFont = scope.closeWithDocument(fonts.open(doc, L.fontRegular()));
+            PDFont font = docFont.font();
+
+            // Células formatadas uma vez (colunar); paginação calculada de antemão pela
+            // capacidade de cada área: a página de tabelas i recebe o i-ésimo bloco de
+            // materiais e o i-ésimo bloco de serviços.
+            ItemColumns mats = ItemColumns.of(dto.getMateriais());
+            ItemColumns srvs = ItemColumns.of(dto.getServicos());
+            float[] xs = ItemColumns.xs(L.cols());
+            int capMat = L.materiais().capacity();
+            int capSrv = L.servicos().capacity();
+            int tablePages = Math.max(1, Math.max(pagesFor(mats.rows(), capMat), pagesFor(srvs.rows(), capSrv)));
+            sample.rows(mats.rows() + srvs.rows(),
+                    Math.max(0, mats.rows() - capMat) + Math.max(0, srvs.rows() - capSrv));
+
+            // Páginas de destino: cabeçalho/totais + tabelas e continuações (criadas
+            // antes de qualquer desenho, com as fontes já registradas nos recursos)
+            PDPage pageHeader = doc.getPage(L.pageHeaderTotais());
+            ContinuationPages continuation = new ContinuationPages(doc, doc.getPage(L.pageTables()));
+            List<PDPage> targets = new ArrayList<>(tablePages + 1);
+            List<PageDrawer> drawers = new ArrayList<>(tablePages + 1);
+
+            GlyphWidths widths = docFont.widths();
+            targets.add(pageHeader);
+            drawers.add((cs, f) -> drawHeaderPage(cs, pageHeader, L, dto, f, widths));
+            for (int i = 0; i < tablePages; i++) {
+                PDPage pageTab = continuation.get(i);
+                ItemColumns matChunk = mats.page(i, capMat);
+                ItemColumns srvChunk = srvs.page(i, capSrv);
+                targets.add(pageTab);
+                drawers.add((cs, f) -> drawTablesPage(cs, pageTab, L, f, widths, xs, matChunk, srvChunk));
             }
 
-            // ===== Página de Tabelas (Materiais/Serviços) =====
-            PDPage pageTab = doc.getPage(PAGE_IDX_TABELAS);
-            try (PDPageContentStream cs = new PDPageContentStream(doc, pageTab, AppendMode.APPEND, true, true)) {
-                normalizeToCropBox(cs, pageTab);
+            byte[][] contents = generate(doc, targets, drawers, docFont, sample);
+            for (int i = 0; i < targets.size(); i++) {
+                PageContent.attach(doc, targets.get(i), contents[i]);
+                PageContent.markUpdated(targets.get(i));
+            }
+            if (embedFonts) {
+                docFont.embed();
+            }
+            sample.phase(RenderMetrics.Phase.DRAW);
 
-                if (DEBUG_GRID) {
-                    drawGrid(cs, pageTab, GRID_STEP, GRID_MAJOR);
-                    drawProbes(cs, cfg.path("probes").path("pageTables"));
-                }
+            return doc;
+        } catch (Exception e) {
+            doc.close();
+            throw e;
+        }
+    }
 
-                // Materiais (todas as linhas, se houver)
-                if (hasItems(dto.getMateriais())) {
-                    drawItems(cs, Y_MAT_FIRSTLINE + Y_ROW_STEP, dto.getMateriais(), true,
-                            X_COL_DESC, X_COL_COMP, X_COL_UN, X_COL_QTD, X_COL_CUSTO, X_COL_PRECO, X_COL_DESC_LIM, X_COL_PRECO_KG,
-                            Y_ROW_STEP, Y_MIN_MAT, Y_MIN_SRV);
-                }
-                // Serviços (todas as linhas, se houver)
-                if (hasItems(dto.getServicos())) {
-                    drawItems(cs, Y_SRV_FIRSTLINE + Y_ROW_STEP, dto.getServicos(), false,
-                            X_COL_DESC, X_COL_COMP, X_COL_UN, X_COL_QTD, X_COL_CUSTO, X_COL_PRECO, X_COL_DESC_LIM, X_COL_PRECO_KG,
-                            Y_ROW_STEP, Y_MIN_MAT, Y_MIN_SRV);
+    // ----------------- Ingestão em streaming -----------------
+
+    /**
+     * Render direto do JSON, lido em streaming por {@link BudgetStreamReader}: cada item é
+     * desenhado assim que chega, no bloco (página × tabela) corrente, e o bloco é fechado e
+     * comprimido quando a área enche. Nenhuma lista de itens é montada — a memória fica
+     * limitada a uma página de linhas por tabela, qualquer que seja o tamanho do payload.
+     *
+     * O template precisa ser conhecido antes do primeiro item: vem de {@code templateId}
+     * (parâmetro) ou do campo templateId, se vier antes das tabelas no JSON. Sem grade de
+     * calibração nas páginas de tabela. Quem chama fecha o documento devolvido.
+     */
+    public PDDocument renderStreaming(InputStream json, String templateId) throws Exception {
+        RenderMetrics.Sample sample = metrics.start();
+        StreamingFill fill = new StreamingFill(templateId, sample);
+        try {
+            BudgetDto header = streamReader.read(json, fill);
+            PDDocument doc = fill.finish(header);
+            sample.finish(-1);
+            return doc;
+        } catch (Exception e) {
+            fill.abort();
+            throw e;
+        }
+    }
+
+    /** Estado de um render em streaming: documento, fonte e o bloco aberto de cada tabela. */
+    private final class StreamingFill implements BudgetStreamReader.Handler {
+        private final String templateParam;
+        private final RenderMetrics.Sample sample;
+        private TemplateRegistry.Lease lease;
+        private String templateId;
+        private PDDocument doc;
+        private FontLibrary.DocFont docFont;
+        private Layout L;
+        private float[] xs;
+        private ContinuationPages continuation;
+        private Region mat;
+        private Region srv;
+
+        StreamingFill(String templateParam, RenderMetrics.Sample sample) {
+            this.templateParam = templateParam;
+            this.sample = sample;
+        }
+
+        @Override
+        public void start(BudgetDto headerSoFar) throws Exception {
+            templateId = templateParam != null && !templateParam.isBlank() ? templateParam : headerSoFar.getTemplateId();
+            lease = registry.acquire(templateId);
+            PdfTemplate template = lease.template();
+            DocumentScope scope = new DocumentScope(memory.streamCache());
+            doc = incremental
+                    ? template.openForUpdate(scope)
+                    : template.newDocument(scope);
+            sample.phase(RenderMetrics.Phase.TEMPLATE);
+
+            L = lease.layout();
+            sample.phase(RenderMetrics.Phase.LAYOUT);
+
+            docFont = scope.closeWithDocument(fonts.open(doc, L.fontRegular()));
+            xs = ItemColumns.xs(L.cols());
+            continuation = new ContinuationPages(doc, doc.getPage(L.pageTables()));
+            mat = new Region(L.materiais());
+            srv = new Region(L.servicos());
+        }
+
+        @Override
+        public void item(BudgetStreamReader.Section section, ItemDto item) throws Exception {
+            (section == BudgetStreamReader.Section.MATERIAIS ? mat : srv).add(item);
+        }
+
+        PDDocument finish(BudgetDto header) throws Exception {
+            boolean sameTemplate = templateParam != null && !templateParam.isBlank()
+                    || Objects.equals(blankToNull(templateId), blankToNull(header.getTemplateId()));
+            if (!sameTemplate) {
+                throw new UnknownTemplateException("templateId deve vir antes de materiais/serviços no JSON (ou use ?templateId=)");
+            }
+            mat.flush();
+            srv.flush();
+            sample.rows(mat.total + srv.total, mat.overflow() + srv.overflow());
+
+            PDPage pageHeader = doc.getPage(L.pageHeaderTotais());
+            PDFont font = docFont.font();
+            long t0 = System.nanoTime();
+            byte[] content = PageContent.generate(doc, registerFonts(pageHeader, font),
+                    cs -> drawHeaderPage(cs, pageHeader, L, header, font, docFont.widths()), compression.deflateLevel());
+            PageContent.attach(doc, pageHeader, content);
+            PageContent.markUpdated(pageHeader);
+            sample.record(RenderMetrics.Phase.HEADER, System.nanoTime() - t0);
+
+            lease.close();
+            sample.phase(RenderMetrics.Phase.DRAW);
+            return doc;
+        }
+
+        void abort() {
+            try {
+                if (doc != null) doc.close(); // devolve também a fonte (DocumentScope)
+            } catch (IOException e) {
+                // nada a fazer: o render já falhou
+            } finally {
+                if (lease != null) lease.close();
+            }
+        }
+
+        /** Bloco aberto de uma tabela: página corrente, linha corrente e o conteúdo em construção. */
+        private final class Region {
+            private final Layout.Table table;
+            private final String[] cells = new String[ItemColumns.COLS];
+            private int page = -1;
+            private int rows;
+            private int total;
+            private float y;
+            private PDPage target;
+            private PageContent.Builder content;
+            private TextRun run;
+            private long nanos;
+
+            Region(Layout.Table table) {
+                this.table = table;
+            }
+
+            void add(ItemDto it) throws IOException {
+                if (content == null || rows == table.capacity()) {
+                    flush();
+                    open(page + 1);
                 }
+                long t0 = System.nanoTime();
+                ItemColumns.format(it, cells, 0);
+                drawRow(run, docFont.font(), y, cells, 0, xs);
+                y -= table.rowStep();
+                nanos += System.nanoTime() - t0;
+                rows++;
+                total++;
+            }
+
+            private void open(int next) throws IOException {
+                page = next;
+                rows = 0;
+                y = table.yFirst();
+                target = continuation.get(page);
+                content = PageContent.open(doc, registerFonts(target, docFont.font()));
+                normalizeToCropBox(content.stream(), target);
+                run = new TextRun(content.stream(), docFont.widths());
+            }
+
+            /** Fecha o bloco corrente e o anexa à página. */
+            void flush() throws IOException {
+                if (content == null) return;
+                long t0 = System.nanoTime();
+                run.close();
+                PageContent.attach(doc, target, content.finish(compression.deflateLevel()));
+                PageContent.markUpdated(target);
+                content = null;
+                run = null;
+                sample.record(RenderMetrics.Phase.TABLES, nanos + System.nanoTime() - t0);
+                nanos = 0;
+            }
+
+            int overflow() {
+                return Math.max(0, total - table.capacity());
+            }
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    /**
+     * Serializa o documento. No modo incremental os bytes do template são copiados como estão
+     * e só os objetos alterados/novos (páginas desenhadas, recursos, árvore de páginas e os
+     * streams de conteúdo) são acrescentados ao final — o custo depende do que desenhamos,
+     * não do tamanho do template. No save completo, object streams e nível de Deflate vêm
+     * do {@link CompressionProfile}.
+     */
+    public void save(PDDocument doc, OutputStream out) throws IOException {
+        if (incremental) {
+            doc.saveIncremental(out);
+        } else {
+            doc.save(out, compression.compressParameters());
+        }
+    }
+
+    // ----------------- Geração das páginas -----------------
+
+    /** Desenho de uma página com a instância de fonte da thread que gera. */
+    @FunctionalInterface
+    private interface PageDrawer {
+        void draw(PDPageContentStream cs, PDFont font) throws IOException;
+    }
+
+    /**
+     * Gera o conteúdo de cada página num buffer próprio: em paralelo no pool quando há
+     * mais de uma página e a fonte tem cópia por thread ({@link FontLibrary.DocFont#workerCopy});
+     * senão, em sequência. As instâncias do PDFBox guardam caches em HashMap sem
+     * sincronização (codificação e larguras; o subset da TTF acumula glifos no documento),
+     * então cada página paralela desenha com a sua cópia, que aponta para o mesmo
+     * dicionário de fonte no PDF. O mecanismo é o mesmo nos dois casos e a saída é idêntica.
+     */
+    private byte[][] generate(PDDocument doc, List<PDPage> targets, List<PageDrawer> drawers,
+                              FontLibrary.DocFont docFont, RenderMetrics.Sample sample) throws IOException {
+        int n = targets.size();
+        PDFont font = docFont.font();
+        PDResources[] resources = new PDResources[n];
+        for (int i = 0; i < n; i++) {
+            resources[i] = registerFonts(targets.get(i), font);
+        }
+
+        byte[][] out = new byte[n][];
+        PDFont first = pagePool == null || n < 2 ? null : docFont.workerCopy();
+        if (first == null) {
+            for (int i = 0; i < n; i++) {
+                out[i] = generatePage(doc, resources[i], drawers.get(i), font, i, compression.deflateLevel(), sample);
             }
+            return out;
+        }
 
-            // Exporta
-            try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                doc.save(baos);
-                return baos.toByteArray();
+        List<Callable<byte[]>> tasks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int page = i;
+            PDFont copy = i == 0 ? first : docFont.workerCopy();
+            tasks.add(() -> generatePage(doc, resources[page], drawers.get(page), copy, page, compression.deflateLevel(), sample));
+        }
+        try {
+            List<Future<byte[]>> results = pagePool.invokeAll(tasks);
+            for (int i = 0; i < n; i++) {
+                out[i] = results.get(i).get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Render interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+        return out;
+    }
+
+    private static byte[] generatePage(PDDocument doc, PDResources resources, PageDrawer drawer, PDFont font,
+                                       int index, int deflateLevel, RenderMetrics.Sample sample) throws IOException {
+        long t0 = System.nanoTime();
+        byte[] content = PageContent.generate(doc, resources, cs -> drawer.draw(cs, font), deflateLevel);
+        sample.record(index == 0 ? RenderMetrics.Phase.HEADER : RenderMetrics.Phase.TABLES, System.nanoTime() - t0);
+        return content;
+    }
+
+    /** Registra as fontes nos recursos da página (antes da geração, que só as consulta). */
+    private static PDResources registerFonts(PDPage page, PDFont font) {
+        PDResources res = page.getResources();
+        if (res == null) {
+            res = new PDResources();
+            page.setResources(res);
+        }
+        res.add(font);
+        return res;
+    }
+
+    private static void drawHeaderPage(PDPageContentStream cs, PDPage page, Layout L, BudgetDto dto,
+                                       PDFont font, GlyphWidths widths) throws IOException {
+        normalizeToCropBox(cs, page);
+
+        if (DEBUG_GRID) {
+            drawGrid(cs, page, font, GRID_STEP, GRID_MAJOR);
+            drawProbes(cs, font, L.probesPage1());
+        }
+
+        try (TextRun run = new TextRun(cs, widths)) {
+            // Empresa
+            var emp = dto.getEmpresa();
+            Layout.Empresa E = L.empresa();
+            run.show(font, FONT_H, E.x(), E.yRazao(),   emp != null ? emp.getRazaoSocial() : "-");
+            run.show(font, FONT_H, E.x(), E.yCnpj(),    emp != null ? emp.getCnpj()        : "-");
+            run.show(font, FONT_H, E.x(), E.yContato(), emp != null ? emp.getContato()     : "-");
+            run.show(font, FONT_H, E.x(), E.yTel(),     emp != null ? emp.getTelefone()    : "-");
+            run.show(font, FONT_H, E.x(), E.yEmail(),   emp != null ? emp.getEmail()       : "-");
+
+            // Obra
+            Layout.Obra O = L.obra();
+            run.show(font, FONT_H, O.xLabel(), O.y(), "Obra:");
+            drawParagraph(run, font, FONT_H, O.xVal(), O.y(), O.maxW(), safe(dto.getObra()), 12f);
+
+            // Totais
+            drawTotals(run, font, dto.getTotais(), L.totais());
+        }
+    }
+
+    private static void drawTablesPage(PDPageContentStream cs, PDPage page, Layout L, PDFont font,
+                                       GlyphWidths widths, float[] xs, ItemColumns mats, ItemColumns srvs) throws IOException {
+        normalizeToCropBox(cs, page);
+
+        if (DEBUG_GRID) {
+            drawGrid(cs, page, font, GRID_STEP, GRID_MAJOR);
+            drawProbes(cs, font, L.probesPageTables());
+        }
+
+        // Um único objeto de texto para as linhas da página
+        try (TextRun run = new TextRun(cs, widths)) {
+            drawItems(run, font, L.materiais().yFirst() + L.materiais().rowStep(), mats, xs, L.materiais());
+            drawItems(run, font, L.servicos().yFirst() + L.servicos().rowStep(), srvs, xs, L.servicos());
         }
     }
 
@@ -179,96 +561,95 @@ public class StongelTemplateRenderer {
         // if (rot == 270) cs.transform(Matrix.getRotateInstance(Math.toRadians(270), 0, crop.getHeight()));
     }
 
-    /** Desenha linhas de itens (somente DADOS). */
-    private static float drawItems(
-            PDPageContentStream cs, float yStart, List<ItemDto> itens, boolean materiais,
-            float X_COL_DESC, float X_COL_COMP, float X_COL_UN, float X_COL_QTD, float X_COL_CUSTO,
-            float X_COL_PRECO, float X_COL_DESC_LIM, float X_COL_PRECO_KG,
-            float Y_ROW_STEP, float Y_MIN_MAT, float Y_MIN_SRV
+    /** Desenha linhas de itens (somente DADOS); o bloco já cabe na área da tabela. */
+    static float drawItems(
+            TextRun run, PDFont font, float yStart, ItemColumns itens, float[] xs, Layout.Table T
     ) throws IOException {
-        if (!hasItems(itens)) return yStart;
-
-        float y = yStart - Y_ROW_STEP;
-        for (ItemDto it : itens) {
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_DESC,     y, safe(it.getDescricao()));
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_COMP,     y, safe(it.getComp()));
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_UN,       y, safe(it.getUnidade()));
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_QTD,      y, BR.numero(it.getQuantidade()));
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_CUSTO,    y, BR.moeda(it.getCusto()));
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_PRECO,    y, BR.moeda(it.getPrecoVenda()));
-
-            String limDesc = (it.getLimiteDesconto() != null) ? it.getLimiteDesconto().toString() + "%" : "-";
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_DESC_LIM, y, limDesc);
-
-            BR.drawText(cs, FONT_REG, FONT_H, X_COL_PRECO_KG, y, BR.moeda(it.getPrecoKg()));
-
-            y -= Y_ROW_STEP;
-
-            // Limites para não invadir outros blocos do template
-            if (materiais && y < Y_MIN_MAT) break;
-            if (!materiais && y < Y_MIN_SRV) break;
+        String[] cells = itens.cells();
+        float y = yStart - T.rowStep();
+        for (int r = 0, n = itens.rows(); r < n; r++) {
+            drawRow(run, font, y, cells, itens.offset(r), xs);
+            y -= T.rowStep();
         }
         return y;
     }
 
+    /** Uma linha na altura {@code y}: células {@code cells[off ..]} nas colunas {@code xs}. */
+    private static void drawRow(TextRun run, PDFont font, float y, String[] cells, int off, float[] xs) throws IOException {
+        for (int c = 0; c < ItemColumns.COLS; c++) {
+            run.show(font, FONT_H, xs[c], y, cells[off + c]);
+        }
+    }
+
+    /** Páginas necessárias para {@code n} linhas com {@code capacity} linhas por página. */
+    private static int pagesFor(int n, int capacity) {
+        return n == 0 ? 0 : (int) ((n + (long) capacity - 1) / capacity);
+    }
+
     /** Totais na página de cabeçalho. */
-    private static void drawTotals(PDPageContentStream cs, TotaisDto t,
-        float X_TOT_LABEL, float X_TOT_VAL,
-        float Y_TOT_TOP, float Y_TOT_STEP) throws IOException {
+    private static void drawTotals(TextRun run, PDFont font, TotaisDto t, Layout.Totais T) throws IOException {
         if (t == null) return;
-        float y = Y_TOT_TOP;
-
-        drawTotalLine(cs, "Subtotal",        t.getSubtotal(),       y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
-        drawTotalLine(cs, "Desconto",        t.getDesconto(),       y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
-        drawTotalLine(cs, "Total Materiais", t.getTotalMateriais(), y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
-        drawTotalLine(cs, "Total Serviços",  t.getTotalServicos(),  y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
-        drawTotalBold(cs, "TOTAL GERAL",     t.getTotalGeral(),     y, X_TOT_LABEL, X_TOT_VAL);
+        float X_TOT_LABEL = T.xLabel(), X_TOT_VAL = T.xVal(), Y_TOT_STEP = T.step();
+        float y = T.yTop();
+
+        drawTotalLine(run, font, "Subtotal",        t.getSubtotal(),       y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
+        drawTotalLine(run, font, "Desconto",        t.getDesconto(),       y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
+        drawTotalLine(run, font, "Total Materiais", t.getTotalMateriais(), y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
+        drawTotalLine(run, font, "Total Serviços",  t.getTotalServicos(),  y, X_TOT_LABEL, X_TOT_VAL); y -= Y_TOT_STEP;
+        drawTotalBold(run, font, "TOTAL GERAL",     t.getTotalGeral(),     y, X_TOT_LABEL, X_TOT_VAL);
     }
 
-    private static void drawTotalLine(PDPageContentStream cs, String label, Number val, float y,
+    private static void drawTotalLine(TextRun run, PDFont font, String label, Number val, float y,
                                       float X_TOT_LABEL, float X_TOT_VAL) throws IOException {
-        BR.drawText(cs, FONT_REG, FONT_H, X_TOT_LABEL, y, label);
-        BR.drawText(cs, FONT_REG,   FONT_H, X_TOT_VAL,   y, BR.moeda(val));
+        run.show(font, FONT_H, X_TOT_LABEL, y, label);
+        run.show(font, FONT_H, X_TOT_VAL,   y, BR.moeda(val));
     }
 
-    private static void drawTotalBold(PDPageContentStream cs, String label, Number val, float y,
+    private static void drawTotalBold(TextRun run, PDFont font, String label, Number val, float y,
                                       float X_TOT_LABEL, float X_TOT_VAL) throws IOException {
-        BR.drawText(cs, FONT_REG,   FONT_H, X_TOT_LABEL, y, label);
-        BR.drawText(cs, FONT_REG,   FONT_H, X_TOT_VAL,   y, BR.moeda(val));
+        run.show(font, FONT_H, X_TOT_LABEL, y, label);
+        run.show(font, FONT_H, X_TOT_VAL,   y, BR.moeda(val));
     }
 
     /** Parágrafo com quebra automática respeitando largura máxima. */
-    private static void drawParagraph(PDPageContentStream cs, PDFont font, float fontSize,
+    static void drawParagraph(TextRun run, PDFont font, float fontSize,
                                       float x, float y, float maxWidth,
                                       String text, float lineStep) throws IOException {
         if (text == null || text.isBlank()) {
-            BR.drawText(cs, font, fontSize, x, y, "-");
+            run.show(font, fontSize, x, y, "-");
             return;
         }
-        String[] words = text.split("\\s+");
-        String line = "";
+        // Largura medida de forma incremental (GlyphWidths do run), sem montar a string de teste
+        GlyphWidths gw = run.widths();
+        String[] words = gw.encodable(text).split("\\s+");
+        StringBuilder line = new StringBuilder();
+        float lineW = 0f;
         float cursorY = y;
 
         for (String w : words) {
-            String probe = line.isEmpty() ? w : line + " " + w;
-            float width = font.getStringWidth(probe) / 1000f * fontSize;
-            if (width > maxWidth) {
-                BR.drawText(cs, font, fontSize, x, cursorY, line);
+            float probeW = line.isEmpty() ? 0f : gw.advance(' ') + lineW;
+            probeW = gw.add(probeW, w);
+            if (probeW / 1000f * fontSize > maxWidth) {
+                run.show(font, fontSize, x, cursorY, line.toString());
                 cursorY -= lineStep;
-                line = w;
+                line.setLength(0);
+                line.append(w);
+                lineW = gw.width(w);
             } else {
-                line = probe;
+                if (!line.isEmpty()) line.append(' ');
+                line.append(w);
+                lineW = probeW;
             }
         }
         if (!line.isEmpty()) {
-            BR.drawText(cs, font, fontSize, x, cursorY, line);
+            run.show(font, fontSize, x, cursorY, line.toString());
         }
     }
 
     // ----------------- DEBUG / Calibração -----------------
 
     /** Grade com subgraduação (step) e linhas maiores (major). */
-    private static void drawGrid(PDPageContentStream cs, PDPage page, float step, float major) throws IOException {
+    private static void drawGrid(PDPageContentStream cs, PDPage page, PDFont font, float step, float major) throws IOException {
         PDRectangle b = page.getCropBox();
         float w = b.getWidth();
         float h = b.getHeight();
@@ -282,7 +663,7 @@ public class StongelTemplateRenderer {
             cs.lineTo(x, h);
             cs.stroke();
             if (isMajor) {
-                BR.drawText(cs, FONT_REG, 7f, x + 2, 3, String.valueOf((int) x));
+                BR.drawText(cs, font, 7f, x + 2, 3, String.valueOf((int) x));
             }
         }
         for (float y = 0; y <= h + 0.1f; y += step) {
@@ -292,7 +673,7 @@ public class StongelTemplateRenderer {
             cs.lineTo(w, y);
             cs.stroke();
             if (isMajor) {
-                BR.drawText(cs, FONT_REG, 7f, 2, y + 2, String.valueOf((int) y));
+                BR.drawText(cs, font, 7f, 2, y + 2, String.valueOf((int) y));
             }
         }
 
@@ -303,14 +684,11 @@ public class StongelTemplateRenderer {
         cs.moveTo(0, 0); cs.lineTo(0, h); cs.stroke(); // eixo Y
     }
 
-    /** Desenha probes de JSON: cruz + rótulo em (x,y). */
-    private static void drawProbes(PDPageContentStream cs, JsonNode arr) throws IOException {
-        if (arr == null || !arr.isArray()) return;
-        for (Iterator<JsonNode> it = arr.elements(); it.hasNext();) {
-            JsonNode p = it.next();
-            float x = (float) p.path("x").asDouble();
-            float y = (float) p.path("y").asDouble();
-            String label = p.path("label").asText("(" + (int)x + "," + (int)y + ")");
+    /** Desenha probes do layout: cruz + rótulo em (x,y). */
+    private static void drawProbes(PDPageContentStream cs, PDFont font, List<Layout.Probe> probes) throws IOException {
+        for (Layout.Probe p : probes) {
+            float x = p.x();
+            float y = p.y();
 
             // cruz
             cs.setStrokingColor(new Color(180, 0, 0));
@@ -319,54 +697,20 @@ public class StongelTemplateRenderer {
             cs.moveTo(x, y - 4); cs.lineTo(x, y + 4); cs.stroke();
 
             // label
-            BR.drawText(cs, FONT_REG, 8f, x + 6, y + 2, label);
+            BR.drawText(cs, font, 8f, x + 6, y + 2, p.label());
         }
     }
 
     // ----------------- Util -----------------
 
-    /** Lê o stongel-coords.json do classpath a cada chamada. */
-    private static JsonNode loadDynamicConfig() {
-        try (InputStream is = new ClassPathResource("templates/stongel-coords.json").getInputStream()) {
-            return new ObjectMapper().readTree(is);
-        } catch (Exception e) {
-            // fallback mínima
-            try {
-                return new ObjectMapper().readTree("{\"pageIndexes\":{\"headerTotais\":0,\"tables\":6}}");
-            } catch (IOException ex) {
-                throw new RuntimeException("Falha ao carregar stongel-coords.json", ex);
-            }
-        }
-    }
-
-    private static int getInt(JsonNode n, String path, int def) {
-        JsonNode j = at(n, path);
-        return (j != null && j.isInt()) ? j.asInt() : def;
-    }
-
-    private static float getF(JsonNode n, String path, float def) {
-        JsonNode j = at(n, path);
-        return (j != null && j.isNumber()) ? (float) j.asDouble() : def;
-    }
-
-    private static JsonNode at(JsonNode n, String path) {
-        String[] ps = path.split("\\.");
-        JsonNode cur = n;
-        for (String p : ps) {
-            if (cur == null) return null;
-            cur = cur.get(p);
-        }
-        return cur;
-    }
-
     private static float getSysF(String prop, float def) {
         String v = System.getProperty(prop);
         if (v == null || v.isBlank()) return def;
         try { return Float.parseFloat(v); } catch (Exception e) { return def; }
     }
 
-    private static boolean hasItems(List<?> list) {
-        return list != null && !list.isEmpty();
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
     }
 
     private static String safe(String s) {
@@ -0,0 +1,65 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.dto.EmpresaDto;
+import com.stongel.pdfdrawer.dto.ItemDto;
+import com.stongel.pdfdrawer.dto.TotaisDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/** Orçamentos sintéticos (determinísticos): aquecimento na subida e benchmarks. */
+public final class SyntheticBudgets {
+
+    private SyntheticBudgets() {}
+
+    /** Orçamento com {@code items} linhas, divididas meio a meio entre materiais e serviços. */
+    public static BudgetDto sample(int items) {
+        SplittableRandom rnd = new SplittableRandom(items);
+
+        EmpresaDto emp = new EmpresaDto();
+        emp.setRazaoSocial("STONGEL Pisos e Revestimentos Ltda");
+        emp.setCnpj("12.345.678/0001-90");
+        emp.setContato("Fulano de Tal");
+        emp.setTelefone("(11) 98765-4321");
+        emp.setEmail("contato@example.com");
+
+        TotaisDto tot = new TotaisDto();
+        tot.setSubtotal(money(rnd));
+        tot.setDesconto(money(rnd));
+        tot.setTotalMateriais(money(rnd));
+        tot.setTotalServicos(money(rnd));
+        tot.setTotalGeral(money(rnd));
+
+        BudgetDto dto = new BudgetDto();
+        dto.setEmpresa(emp);
+        dto.setObra("Rua das Palmeiras, 1234 - Galpão B - Distrito Industrial - Campinas/SP - piso de alta resistência");
+        dto.setTotais(tot);
+        dto.setMateriais(items(rnd, (items + 1) / 2, "Material"));
+        dto.setServicos(items(rnd, items / 2, "Serviço"));
+        return dto;
+    }
+
+    private static List<ItemDto> items(SplittableRandom rnd, int n, String prefix) {
+        List<ItemDto> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ItemDto it = new ItemDto();
+            it.setDescricao(prefix + " " + (i + 1) + " - granilite polido 40x40");
+            it.setComp("C" + rnd.nextInt(100));
+            it.setUnidade("m²");
+            it.setQuantidade(BigDecimal.valueOf(rnd.nextLong(1, 1_000_000L), 3));
+            it.setCusto(money(rnd));
+            it.setPrecoVenda(money(rnd));
+            it.setLimiteDesconto(BigDecimal.valueOf(rnd.nextInt(0, 30)));
+            it.setPrecoKg(money(rnd));
+            list.add(it);
+        }
+        return list;
+    }
+
+    private static BigDecimal money(SplittableRandom rnd) {
+        return BigDecimal.valueOf(rnd.nextLong(0, 10_000_000L), 2);
+    }
+}
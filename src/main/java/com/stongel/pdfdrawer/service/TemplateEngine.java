@@ -0,0 +1,97 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.util.FileWatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantém o template PDF parseado uma única vez (na subida e a cada {@link #reload()}).
+ *
+ * Fonte: "pdf.template.path" (arquivo no disco, recarregado ao ser alterado) ou, se vazio,
+ * "templates/STONGEL - PDF.pdf" do classpath. Se o template não estiver disponível na subida,
+ * a carga é refeita no primeiro uso. Um reload troca a referência atomicamente; renders em
+ * andamento continuam usando a cópia mestre anterior até terminarem.
+ */
+@Component
+public class TemplateEngine {
+    private static final Logger log = LoggerFactory.getLogger(TemplateEngine.class);
+
+    static final String TEMPLATE_PATH = "templates/STONGEL - PDF.pdf";
+
+    private final AtomicReference<PdfTemplate> current = new AtomicReference<>();
+    private final Resource resource;
+    private FileWatcher watcher;
+
+    public TemplateEngine(@Value("${pdf.template.path:}") String templatePath) {
+        this.resource = templatePath.isBlank()
+                ? new ClassPathResource(TEMPLATE_PATH)
+                : new FileSystemResource(templatePath);
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (IOException e) {
+            log.warn("Template {} indisponível na subida; nova tentativa no primeiro uso: {}", resource, e.getMessage());
+        }
+        try {
+            if (resource.isFile()) {
+                Path file = resource.getFile().toPath();
+                watcher = FileWatcher.watch(file, () -> {
+                    try {
+                        reload();
+                    } catch (IOException e) {
+                        log.warn("Falha ao recarregar o template: {}", e.getMessage());
+                    }
+                });
+            }
+        } catch (IOException e) {
+            log.warn("Hot reload do template desativado: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watcher != null) watcher.close();
+    }
+
+    /** Template atual (carrega sob demanda se ainda não houver). */
+    public PdfTemplate current() throws IOException {
+        PdfTemplate t = current.get();
+        if (t != null) return t;
+        synchronized (this) {
+            t = current.get();
+            return t != null ? t : reload();
+        }
+    }
+
+    /** Relê e parseia o template, publicando a nova cópia mestre. */
+    public synchronized PdfTemplate reload() throws IOException {
+        long t0 = System.nanoTime();
+        byte[] bytes;
+        try (InputStream is = resource.getInputStream()) {
+            bytes = is.readAllBytes();
+        }
+        PdfTemplate t = PdfTemplate.parse(bytes);
+        PdfTemplate old = current.getAndSet(t);
+        if (old != null) {
+            old.release(); // fecha a mestre anterior quando o último render em andamento terminar
+        }
+        log.info("Template {} carregado: {} páginas, {} bytes em {} ms",
+                resource, t.getPageCount(), bytes.length, (System.nanoTime() - t0) / 1_000_000);
+        return t;
+    }
+}
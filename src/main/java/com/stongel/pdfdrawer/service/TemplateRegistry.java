@@ -0,0 +1,205 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Variantes de template (por cliente/marca) identificadas pelo {@code templateId} do orçamento.
+ *
+ * Sem templateId vale o template padrão ({@link TemplateEngine} + {@link LayoutHolder}, com
+ * hot reload). Para um id, lê "{pdf.templates.base}{id}.pdf" e, se existir,
+ * "{pdf.templates.base}{id}-coords.json" (senão usa o layout padrão). Cada variante é
+ * carregada sob demanda, parseada uma vez e fica num LRU limitado por memória
+ * ("pdf.templates.max-bytes"). Renders pegam um {@link Lease}: uma variante removida do LRU
+ * só tem a cópia mestre fechada quando o último render que a usa termina.
+ */
+@Component
+public class TemplateRegistry {
+    private static final Logger log = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final TemplateEngine defaultTemplate;
+    private final LayoutHolder defaultLayout;
+    private final String base;
+    private final long maxBytes;
+    private final ResourceLoader resources = new DefaultResourceLoader();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final LinkedHashMap<String, Variant> variants = new LinkedHashMap<>(16, 0.75f, true);
+    private long variantBytes;
+    /** Cargas em andamento; a entrada sai ao terminar (sucesso ou erro), ids inválidos não acumulam. */
+    private final Map<String, CompletableFuture<Variant>> loading = new ConcurrentHashMap<>();
+
+    public TemplateRegistry(TemplateEngine defaultTemplate, LayoutHolder defaultLayout,
+                            @Value("${pdf.templates.base:classpath:templates/}") String base,
+                            @Value("${pdf.templates.max-bytes:256MB}") DataSize maxBytes) {
+        this.defaultTemplate = defaultTemplate;
+        this.defaultLayout = defaultLayout;
+        this.base = base;
+        this.maxBytes = maxBytes.toBytes();
+    }
+
+    /** Template + layout reservados para um render. Fechar ao terminar. */
+    public static final class Lease implements AutoCloseable {
+        private final PdfTemplate template;
+        private final Layout layout;
+        private boolean closed;
+
+        private Lease(PdfTemplate template, Layout layout) {
+            this.template = template;
+            this.layout = layout;
+        }
+
+        public PdfTemplate template() {
+            return template;
+        }
+
+        public Layout layout() {
+            return layout;
+        }
+
+        /** Hashes de template + layout reservados (entram na chave de cache / ETag). */
+        public String versionKey() {
+            return template.getContentHash() + "|" + layout.contentHash();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                template.release();
+            }
+        }
+    }
+
+    /** Reserva a variante {@code templateId} (null/vazio = padrão), carregando-a se preciso. */
+    public Lease acquire(String templateId) throws IOException {
+        for (;;) {
+            if (templateId == null || templateId.isBlank()) {
+                PdfTemplate t = defaultTemplate.current();
+                if (t.retain()) return new Lease(t, defaultLayout.current());
+            } else {
+                Variant v = variant(templateId);
+                if (v.template.retain()) return new Lease(v.template, v.layout != null ? v.layout : defaultLayout.current());
+            }
+            // Trocado/removido entre a leitura e a reserva: tenta de novo com o atual
+        }
+    }
+
+    /**
+     * Hashes de template + layout atuais da variante (entram na chave de cache / ETag).
+     * Só para consulta: um render guarda a chave de {@link Lease#versionKey()} da reserva
+     * que usou, já que um hot reload pode trocar a versão entre as duas chamadas.
+     */
+    public String versionKey(String templateId) throws IOException {
+        try (Lease lease = acquire(templateId)) {
+            return lease.versionKey();
+        }
+    }
+
+    // ----------------- Variantes -----------------
+
+    private record Variant(PdfTemplate template, Layout layout, long bytes) {}
+
+    private Variant variant(String id) throws IOException {
+        if (!VALID_ID.matcher(id).matches()) {
+            throw new UnknownTemplateException("templateId inválido: " + id);
+        }
+        synchronized (this) {
+            Variant v = variants.get(id);
+            if (v != null) return v;
+        }
+        CompletableFuture<Variant> mine = new CompletableFuture<>();
+        CompletableFuture<Variant> flight = loading.putIfAbsent(id, mine);
+        if (flight != null) return await(flight);
+        try {
+            Variant v;
+            synchronized (this) {
+                v = variants.get(id);
+            }
+            if (v == null) {
+                v = load(id);
+                put(id, v);
+            }
+            mine.complete(v);
+            return v;
+        } catch (Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, mine);
+        }
+    }
+
+    /** Espera a carga de outra thread e repassa o mesmo erro dela. */
+    private static Variant await(CompletableFuture<Variant> flight) throws IOException {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private Variant load(String id) throws IOException {
+        long t0 = System.nanoTime();
+        Resource pdf = resources.getResource(base + id + ".pdf");
+        if (!pdf.exists()) {
+            throw new UnknownTemplateException("Template desconhecido: " + id);
+        }
+        byte[] bytes;
+        try (InputStream in = pdf.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        PdfTemplate template = PdfTemplate.parse(bytes);
+
+        Layout layout = null;
+        Resource coords = resources.getResource(base + id + "-coords.json");
+        if (coords.exists()) {
+            try (InputStream in = coords.getInputStream()) {
+                layout = Layout.compile(mapper.readTree(in));
+            } catch (IOException | RuntimeException e) {
+                template.release();
+                throw e;
+            }
+        }
+        log.info("Template '{}' carregado: {} páginas, {} bytes{} em {} ms", id, template.getPageCount(),
+                bytes.length, layout == null ? " (layout padrão)" : "", (System.nanoTime() - t0) / 1_000_000);
+        return new Variant(template, layout, template.getRetainedBytes());
+    }
+
+    /** Publica a variante e remove as menos usadas até caber no limite. */
+    private synchronized void put(String id, Variant v) {
+        variants.put(id, v);
+        variantBytes += v.bytes();
+        Iterator<Map.Entry<String, Variant>> it = variants.entrySet().iterator();
+        while (variantBytes > maxBytes && variants.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Variant> eldest = it.next();
+            if (eldest.getKey().equals(id)) continue;
+            it.remove();
+            variantBytes -= eldest.getValue().bytes();
+            eldest.getValue().template().release(); // fecha quando o último render terminar
+            log.info("Template '{}' removido do cache", eldest.getKey());
+        }
+    }
+}
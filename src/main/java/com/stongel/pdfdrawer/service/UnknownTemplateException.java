@@ -0,0 +1,10 @@
+package com.stongel.pdfdrawer.service;
+
+/** templateId inválido ou sem arquivo correspondente; vira 400. */
+public class UnknownTemplateException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UnknownTemplateException(String message) {
+        super(message);
+    }
+}
@@ -5,35 +5,31 @@ import org.apache.pdfbox.pdmodel.font.PDFont;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.text.NumberFormat;
-import java.util.Locale;
 import java.util.Objects;
 
 public final class BR {
 
-    private static final Locale PTBR = Locale.of("pt", "BR");
-    private static final NumberFormat NF_MOEDA = NumberFormat.getCurrencyInstance(PTBR);
-    private static final NumberFormat NF_NUM = NumberFormat.getNumberInstance(PTBR);
-
     private BR() {}
 
     public static String texto(String s) {
         return s == null ? "-" : s;
     }
 
+    /** Número pt-BR (thread-safe, ver {@link BRFormat}). */
     public static String numero(Number n) {
-        if (n == null) return "-";
-        return NF_NUM.format(n);
+        BigDecimal v = BRFormat.toBigDecimal(n);
+        return v == null ? "-" : BRFormat.numero(v);
     }
 
+    /** Moeda R$ (thread-safe, ver {@link BRFormat}). */
     public static String moeda(BigDecimal v) {
         if (v == null) return "-";
-        return NF_MOEDA.format(v);
+        return BRFormat.moeda(v);
     }
 
     public static String moeda(Number v) {
-        if (v == null) return "-";
-        return NF_MOEDA.format(new BigDecimal(String.valueOf(v)));
+        BigDecimal bd = BRFormat.toBigDecimal(v);
+        return bd == null ? "-" : BRFormat.moeda(bd);
     }
 
     /** Utilitário simples pra escrever uma linha única já com setFont + moveto. */
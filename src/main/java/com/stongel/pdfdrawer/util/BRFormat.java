@@ -0,0 +1,163 @@
+package com.stongel.pdfdrawer.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Formatação pt-BR de moeda (R$) e números, sem {@link java.text.NumberFormat}.
+ *
+ * Produz exatamente a mesma saída de {@code NumberFormat.getCurrencyInstance(pt-BR)} e
+ * {@code NumberFormat.getNumberInstance(pt-BR)}: arredondamento HALF_EVEN, milhar ".",
+ * decimal ",", moeda com 2 casas e número com até 3 casas (zeros à direita removidos).
+ *
+ * O valor é arredondado em aritmética de {@code long} a partir do valor não escalado e da
+ * escala do {@link BigDecimal} e escrito da direita para a esquerda num buffer de char
+ * reutilizado por thread. Não há estado compartilhado mutável (sem locks).
+ */
+public final class BRFormat {
+
+    private static final String PREFIXO_MOEDA = "R$\u00A0";
+    private static final int CASAS_MOEDA = 2;
+    private static final int MAX_CASAS_NUMERO = 3;
+
+    private static final long[] POW10 = new long[19];
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10L;
+    }
+
+    /** Suficiente para qualquer long (19 dígitos + 6 milhares + vírgula + casas + prefixo). */
+    private static final ThreadLocal<char[]> BUF = ThreadLocal.withInitial(() -> new char[48]);
+
+    private BRFormat() {}
+
+    /** "R$ 1.234,56" (espaço não separável, como o NumberFormat). */
+    public static String moeda(BigDecimal v) {
+        return format(v, CASAS_MOEDA, false, PREFIXO_MOEDA);
+    }
+
+    /** "1.234,5" — até 3 casas, sem zeros à direita. */
+    public static String numero(BigDecimal v) {
+        return format(v, MAX_CASAS_NUMERO, true, "");
+    }
+
+    /** Converte sem passar por String quando possível (null/NaN/Infinito viram null). */
+    public static BigDecimal toBigDecimal(Number n) {
+        if (n == null) return null;
+        if (n instanceof BigDecimal bd) return bd;
+        if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+            return BigDecimal.valueOf(n.longValue());
+        }
+        if (n instanceof BigInteger bi) return new BigDecimal(bi);
+        if (n instanceof Double d) {
+            return Double.isFinite(d) ? BigDecimal.valueOf(d) : null;
+        }
+        if (n instanceof Float f) {
+            return Float.isFinite(f) ? new BigDecimal(Float.toString(f)) : null;
+        }
+        return new BigDecimal(n.toString());
+    }
+
+    // ----------------- Internos -----------------
+
+    private static String format(BigDecimal v, int casas, boolean trim, String prefixo) {
+        boolean negativo = v.signum() < 0;
+        long q = scaledAbs(v, casas);
+        if (q < 0) {
+            return formatBig(v, casas, trim, prefixo, negativo);
+        }
+
+        char[] buf = BUF.get();
+        int pos = write(q, casas, trim, buf, buf.length);
+        for (int i = prefixo.length() - 1; i >= 0; i--) {
+            buf[--pos] = prefixo.charAt(i);
+        }
+        if (negativo) buf[--pos] = '-';
+        return new String(buf, pos, buf.length - pos);
+    }
+
+    /**
+     * |v| arredondado (HALF_EVEN) para {@code casas} decimais, como inteiro escalado.
+     * Retorna -1 se não couber num long (o chamador usa o caminho BigDecimal).
+     */
+    private static long scaledAbs(BigDecimal v, int casas) {
+        if (v.precision() > 18) return -1;
+        long u = Math.abs(v.unscaledValue().longValue());
+        int s = v.scale();
+
+        if (s == casas) return u;
+        if (s < casas) {
+            int d = casas - s;
+            if (d >= POW10.length || u > Long.MAX_VALUE / POW10[d]) return -1;
+            return u * POW10[d];
+        }
+        int d = s - casas;
+        if (d >= POW10.length) return 0; // |u| < 10^18 < 0,5 * 10^19
+        long p = POW10[d];
+        long q = u / p;
+        long r = u % p;
+        long twice = r * 2;
+        if (twice > p || (twice == p && (q & 1L) == 1L)) q++;
+        return q;
+    }
+
+    /** Escreve q (com {@code casas} decimais implícitas) terminando em {@code end}; retorna o início. */
+    private static int write(long q, int casas, boolean trim, char[] buf, int end) {
+        int pos = end;
+        long intPart = q / POW10[casas];
+        long frac = q % POW10[casas];
+
+        int digits = casas;
+        if (trim) {
+            while (digits > 0 && frac % 10 == 0) {
+                frac /= 10;
+                digits--;
+            }
+        }
+        if (digits > 0) {
+            for (int i = 0; i < digits; i++) {
+                buf[--pos] = (char) ('0' + (frac % 10));
+                frac /= 10;
+            }
+            buf[--pos] = ',';
+        }
+
+        int n = 0;
+        do {
+            if (n > 0 && n % 3 == 0) buf[--pos] = '.';
+            buf[--pos] = (char) ('0' + (intPart % 10));
+            intPart /= 10;
+            n++;
+        } while (intPart > 0);
+        return pos;
+    }
+
+    /** Caminho raro para valores que não cabem num long. */
+    private static String formatBig(BigDecimal v, int casas, boolean trim, String prefixo, boolean negativo) {
+        BigDecimal r = v.abs().setScale(casas, RoundingMode.HALF_EVEN);
+        String digits = r.unscaledValue().toString();
+        if (digits.length() <= casas) {
+            digits = "0".repeat(casas - digits.length() + 1) + digits;
+        }
+        String intPart = digits.substring(0, digits.length() - casas);
+        String frac = digits.substring(digits.length() - casas);
+        if (trim) {
+            int end = frac.length();
+            while (end > 0 && frac.charAt(end - 1) == '0') end--;
+            frac = frac.substring(0, end);
+        }
+
+        StringBuilder sb = new StringBuilder(intPart.length() + intPart.length() / 3 + frac.length() + 8);
+        if (negativo) sb.append('-');
+        sb.append(prefixo);
+        int first = intPart.length() % 3;
+        if (first == 0) first = 3;
+        sb.append(intPart, 0, first);
+        for (int i = first; i < intPart.length(); i += 3) {
+            sb.append('.').append(intPart, i, i + 3);
+        }
+        if (!frac.isEmpty()) sb.append(',').append(frac);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.stongel.pdfdrawer.util;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool de blocos de {@value #CHUNK} bytes no heap, reaproveitados entre renders.
+ * Guarda no máximo {@code maxBytes}; o que passar disso é simplesmente descartado.
+ * Thread-safe.
+ */
+public final class ChunkPool {
+
+    public static final int CHUNK = 64 * 1024;
+
+    private final ConcurrentLinkedDeque<byte[]> free = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled;
+
+    public ChunkPool(long maxBytes) {
+        this.maxPooled = (int) Math.min(Integer.MAX_VALUE, Math.max(0, maxBytes / CHUNK));
+    }
+
+    /** Bloco livre (conteúdo indefinido) ou um novo. */
+    public byte[] acquire() {
+        byte[] c = free.pollFirst();
+        if (c == null) return new byte[CHUNK];
+        pooled.decrementAndGet();
+        return c;
+    }
+
+    /** Devolve um bloco obtido por {@link #acquire}; não o use depois. */
+    public void release(byte[] chunk) {
+        if (chunk.length != CHUNK) return;
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.addFirst(chunk); // LIFO: o mais recente tende a estar no cache da CPU
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /** Blocos livres no pool agora. */
+    public int available() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,50 @@
+package com.stongel.pdfdrawer.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Conteúdo pronto em blocos, somente leitura: o PDF que sai de um
+ * {@link ChunkedOutputStream#detach()} e vai para o cache e para a resposta sem ser
+ * copiado para um array único. Os blocos não são mais do pool — ficam com quem guarda
+ * esta instância até o GC. Thread-safe (imutável).
+ */
+public final class ChunkedBytes {
+
+    private final List<byte[]> chunks;
+    private final long size;
+
+    ChunkedBytes(List<byte[]> chunks, long size) {
+        this.chunks = List.copyOf(chunks);
+        this.size = size;
+    }
+
+    /** Um array já existente como bloco único (ex.: lido do disco). */
+    public static ChunkedBytes of(byte[] bytes) {
+        return new ChunkedBytes(List.of(bytes), bytes.length);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /** Escreve o conteúdo em {@code out}, bloco a bloco. */
+    public void writeTo(OutputStream out) throws IOException {
+        for (byte[] c : chunks) {
+            out.write(c);
+        }
+    }
+
+    /** Cópia do conteúdo num array do tamanho exato (fora do caminho das requisições). */
+    public byte[] toByteArray() throws IOException {
+        if (size > Integer.MAX_VALUE - 8) throw new IOException("Conteúdo grande demais para um array: " + size);
+        byte[] out = new byte[(int) size];
+        int off = 0;
+        for (byte[] c : chunks) {
+            System.arraycopy(c, 0, out, off, c.length);
+            off += c.length;
+        }
+        return out;
+    }
+}
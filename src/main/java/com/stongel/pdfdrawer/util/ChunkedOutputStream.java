@@ -0,0 +1,135 @@
+package com.stongel.pdfdrawer.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * OutputStream sobre blocos de um {@link ChunkPool}: cresce um bloco por vez, sem o
+ * dobra-e-copia do ByteArrayOutputStream. O conteúdo sai com {@link #writeTo} (sem
+ * cópia intermediária), {@link #detach} (os próprios blocos, para guardar) ou
+ * {@link #toByteArray} (uma cópia, no tamanho exato).
+ * Como no ByteArrayOutputStream, {@link #close()} não tem efeito (o save do PDFBox fecha o
+ * stream ao terminar); {@link #release()} devolve os blocos ao pool. Não é thread-safe.
+ */
+public final class ChunkedOutputStream extends OutputStream {
+
+    private final ChunkPool pool;
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int index;  // bloco corrente
+    private int pos;    // posição no bloco corrente
+    private long size;
+    private boolean released;
+
+    /** {@code expectedSize}: blocos reservados de uma vez (0 = só o primeiro). */
+    public ChunkedOutputStream(ChunkPool pool, long expectedSize) {
+        this.pool = pool;
+        long n = Math.max(1, (expectedSize + ChunkPool.CHUNK - 1) / ChunkPool.CHUNK);
+        for (long i = 0; i < n; i++) {
+            chunks.add(pool.acquire());
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (pos == ChunkPool.CHUNK) next();
+        chunks.get(index)[pos++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        while (len > 0) {
+            if (pos == ChunkPool.CHUNK) next();
+            int n = Math.min(len, ChunkPool.CHUNK - pos);
+            System.arraycopy(b, off, chunks.get(index), pos, n);
+            pos += n;
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /** Escreve o conteúdo em {@code out}, bloco a bloco. */
+    public void writeTo(OutputStream out) throws IOException {
+        ensureOpen();
+        for (int i = 0; i < index; i++) {
+            out.write(chunks.get(i), 0, ChunkPool.CHUNK);
+        }
+        out.write(chunks.get(index), 0, pos);
+    }
+
+    /** Cópia do conteúdo num array do tamanho exato. */
+    public byte[] toByteArray() throws IOException {
+        ensureOpen();
+        if (size > Integer.MAX_VALUE - 8) throw new IOException("Saída grande demais para um array: " + size);
+        byte[] out = new byte[(int) size];
+        int off = 0;
+        for (int i = 0; i < index; i++) {
+            System.arraycopy(chunks.get(i), 0, out, off, ChunkPool.CHUNK);
+            off += ChunkPool.CHUNK;
+        }
+        System.arraycopy(chunks.get(index), 0, out, off, pos);
+        return out;
+    }
+
+    /**
+     * Entrega o conteúdo sem copiar os blocos cheios: eles passam a ser do
+     * {@link ChunkedBytes} devolvido (saem do pool). Só o último, parcial, é copiado no
+     * tamanho exato; ele e os reservados que sobraram voltam ao pool. Depois disso o stream
+     * fica como após {@link #release()}.
+     */
+    public ChunkedBytes detach() throws IOException {
+        ensureOpen();
+        List<byte[]> content = new ArrayList<>(index + 1);
+        for (int i = 0; i < index; i++) {
+            content.add(chunks.get(i));
+        }
+        if (pos > 0) {
+            content.add(Arrays.copyOf(chunks.get(index), pos));
+        }
+        released = true;
+        for (int i = index; i < chunks.size(); i++) {
+            pool.release(chunks.get(i));
+        }
+        chunks.clear();
+        return new ChunkedBytes(content, size);
+    }
+
+    /** Sem efeito: o conteúdo continua disponível até {@link #release()}. */
+    @Override
+    public void close() {
+    }
+
+    /** Devolve os blocos ao pool; o conteúdo deixa de estar disponível. */
+    public void release() {
+        if (released) return;
+        released = true;
+        for (byte[] c : chunks) {
+            pool.release(c);
+        }
+        chunks.clear();
+    }
+
+    private void next() {
+        index++;
+        if (index == chunks.size()) {
+            chunks.add(pool.acquire());
+        }
+        pos = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (released) throw new IOException("Blocos já devolvidos ao pool");
+    }
+}
@@ -0,0 +1,71 @@
+package com.stongel.pdfdrawer.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Observa um único arquivo (via WatchService no diretório pai) e chama o callback
+ * quando ele é criado ou modificado. Roda numa thread daemon própria.
+ */
+public final class FileWatcher implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(FileWatcher.class);
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService ws;
+    private final Thread thread;
+
+    private FileWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath().normalize();
+        this.onChange = onChange;
+        this.ws = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::loop, "file-watcher-" + this.file.getFileName());
+        this.thread.setDaemon(true);
+    }
+
+    public static FileWatcher watch(Path file, Runnable onChange) throws IOException {
+        FileWatcher w = new FileWatcher(file, onChange);
+        w.thread.start();
+        return w;
+    }
+
+    private void loop() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = ws.take();
+                boolean changed = false;
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (name.equals(ev.context())) changed = true;
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        log.warn("Falha ao recarregar {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // encerrado
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ws.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,123 @@
+package com.stongel.pdfdrawer.util;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Larguras de glifo por fonte, em cache, para medir texto sem criar strings.
+ *
+ * Cada fonte tem uma tabela de avanços (unidades de glifo, 1/1000 em) indexada pelo code
+ * point, em páginas de 256 criadas sob demanda. A soma é feita caractere a caractere,
+ * na mesma ordem de {@link PDFont#getStringWidth}, então o resultado é idêntico ao do
+ * PDFBox — inclusive a exceção para caracteres que a fonte não codifica (ver
+ * {@link #encodable(String)} para trocá-los antes de desenhar).
+ *
+ * Quem desenha pega a tabela uma vez (por documento/página) e a reaproveita; não há mapa
+ * global. Leitura sem lock: as páginas são publicadas via CAS e o preenchimento concorrente
+ * de uma mesma posição grava o mesmo valor. Só a medição de um code point ainda não visto
+ * passa pela fonte, sob o lock da tabela — as instâncias do PDFBox não são thread-safe.
+ */
+public final class GlyphWidths {
+
+    private static final int BMP_PAGES = 0x10000 >>> 8;
+    /** Marca, na tabela, um code point que a fonte não consegue codificar. */
+    private static final float UNENCODABLE = Float.NEGATIVE_INFINITY;
+
+    private final PDFont font;
+    private final AtomicReferenceArray<float[]> pages = new AtomicReferenceArray<>(BMP_PAGES);
+
+    /** Tabela medida com {@code font} (usada só aqui, sob o lock da tabela). */
+    public GlyphWidths(PDFont font) {
+        this.font = font;
+    }
+
+    /** Mesmo valor de {@code font.getStringWidth(text)}. */
+    public float width(CharSequence text) {
+        return add(0f, text);
+    }
+
+    /** Soma a {@code width} os avanços de {@code text}, na ordem (medição incremental). */
+    public float add(float width, CharSequence text) {
+        for (int i = 0, n = text.length(); i < n; ) {
+            int cp = Character.codePointAt(text, i);
+            width += advance(cp);
+            i += Character.charCount(cp);
+        }
+        return width;
+    }
+
+    /** Avanço de um code point, em unidades de glifo. */
+    public float advance(int codePoint) {
+        float w = lookup(codePoint);
+        if (w == UNENCODABLE) {
+            throw new IllegalArgumentException(String.format("No glyph for U+%04X in font %s", codePoint, font.getName()));
+        }
+        return w;
+    }
+
+    /** A fonte consegue codificar {@code codePoint}? */
+    public boolean canEncode(int codePoint) {
+        return lookup(codePoint) != UNENCODABLE;
+    }
+
+    /**
+     * {@code text} com os caracteres que a fonte não codifica trocados por '?'
+     * (a própria instância quando não há nada a trocar).
+     * Usado para fontes sem cobertura Unicode completa, como a Helvetica padrão.
+     */
+    public String encodable(String text) {
+        if (text == null) return null;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            if (!canEncode(cp)) break;
+            i += Character.charCount(cp);
+        }
+        if (i == n) return text;
+
+        StringBuilder sb = new StringBuilder(n).append(text, 0, i);
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            if (canEncode(cp)) {
+                sb.appendCodePoint(cp);
+            } else {
+                sb.append('?');
+            }
+            i += Character.charCount(cp);
+        }
+        return sb.toString();
+    }
+
+    private float lookup(int codePoint) {
+        if (codePoint >= 0x10000) {
+            return measure(codePoint);
+        }
+        float[] page = pages.get(codePoint >>> 8);
+        if (page == null) {
+            float[] fresh = new float[256];
+            Arrays.fill(fresh, Float.NaN);
+            page = pages.compareAndSet(codePoint >>> 8, null, fresh) ? fresh : pages.get(codePoint >>> 8);
+        }
+        float w = page[codePoint & 0xFF];
+        if (Float.isNaN(w)) {
+            w = measure(codePoint);
+            page[codePoint & 0xFF] = w;
+        }
+        return w;
+    }
+
+    private synchronized float measure(int codePoint) {
+        try {
+            return font.getStringWidth(new String(Character.toChars(codePoint)));
+        } catch (IllegalArgumentException e) {
+            return UNENCODABLE;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
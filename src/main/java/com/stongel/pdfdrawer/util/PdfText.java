@@ -17,8 +17,8 @@ public class PdfText {
     cs.endText();
   }
 
-  public static float stringWidth(PDFont font, float size, String text) throws IOException {
+  public static float stringWidth(GlyphWidths widths, float size, String text) {
     if (text == null) text = "";
-    return font.getStringWidth(text) / 1000f * size;
+    return widths.width(text) / 1000f * size;
   }
 }
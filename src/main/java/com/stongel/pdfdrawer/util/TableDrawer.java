@@ -47,12 +47,13 @@ public class TableDrawer {
     }
     y -= rowH;
 
-    // Rows
+    // Rows (tabela de larguras consultada uma vez por tabela)
+    GlyphWidths widths = new GlyphWidths(font);
     for (T r: rows) {
       curX = x;
       for (var c: cols) {
         String v = c.map.apply(r);
-        float txtW = PdfText.stringWidth(font, fontSize, v);
+        float txtW = PdfText.stringWidth(widths, fontSize, v);
         float tx = curX + 3f;
         if (c.align == Align.CENTER) {
           tx = curX + (c.width - txtW)/2f;
@@ -0,0 +1,69 @@
+package com.stongel.pdfdrawer.util;
+
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Escreve vários textos num único objeto de texto (um BT/ET por região da página).
+ *
+ * Diferente de {@link BR#drawText}, que abre BT/Tf/Td/Tj/ET a cada célula, aqui o Tf só é
+ * emitido quando fonte/tamanho mudam e cada texto é posicionado com um Td relativo ao
+ * início do texto anterior. Enquanto o run estiver aberto não desenhe gráficos
+ * (linhas, retângulos) no mesmo content stream — feche-o antes.
+ *
+ * Caracteres que a fonte não codifica saem como '?' (ver {@link GlyphWidths#encodable}),
+ * em vez de derrubar o render inteiro.
+ */
+public final class TextRun implements Closeable {
+
+    private final PDPageContentStream cs;
+    private final GlyphWidths widths;
+    private boolean open;
+    private PDFont font;
+    private float fontSize;
+    private float lineX;
+    private float lineY;
+
+    /** {@code widths}: tabela da fonte passada a {@link #show}, consultada uma vez por run. */
+    public TextRun(PDPageContentStream cs, GlyphWidths widths) {
+        this.cs = cs;
+        this.widths = widths;
+    }
+
+    public GlyphWidths widths() {
+        return widths;
+    }
+
+    /** Mesmo efeito visual de {@code BR.drawText(cs, font, fontSize, x, y, text)}. */
+    public void show(PDFont font, float fontSize, float x, float y, String text) throws IOException {
+        if (!open) {
+            cs.beginText();
+            open = true;
+            this.font = null;
+            lineX = 0f;
+            lineY = 0f;
+        }
+        if (font != this.font || fontSize != this.fontSize) {
+            cs.setFont(font, fontSize);
+            this.font = font;
+            this.fontSize = fontSize;
+        }
+        cs.newLineAtOffset(x - lineX, y - lineY);
+        lineX = x;
+        lineY = y;
+        cs.showText(widths.encodable(Objects.toString(text, "-")));
+    }
+
+    /** Fecha o objeto de texto (ET), se aberto. Pode ser reaberto com {@link #show}. */
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            cs.endText();
+            open = false;
+        }
+    }
+}
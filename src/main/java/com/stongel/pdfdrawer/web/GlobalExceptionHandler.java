@@ -1,6 +1,11 @@
 package com.stongel.pdfdrawer.web;
 
+import com.stongel.pdfdrawer.service.IdempotencyConflictException;
+import com.stongel.pdfdrawer.service.PayloadTooLargeException;
+import com.stongel.pdfdrawer.service.RenderOverloadedException;
+import com.stongel.pdfdrawer.service.UnknownTemplateException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,6 +18,41 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(RenderOverloadedException.class)
+    public ResponseEntity<?> handleOverloaded(RenderOverloadedException ex) {
+        log.debug("Render recusado: {}", ex.getMessage());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "overloaded");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    @ExceptionHandler(UnknownTemplateException.class)
+    public ResponseEntity<?> handleUnknownTemplate(UnknownTemplateException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "unknown_template");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "idempotency_conflict");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.unprocessableEntity().body(body);
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<?> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "payload_too_large");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handle(Exception ex) {
         log.error("Erro não tratado", ex);
@@ -1,39 +1,206 @@
 package com.stongel.pdfdrawer.web;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.BatchRenderService;
 import com.stongel.pdfdrawer.service.PdfRenderService;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.ContentDisposition;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/render")
 public class RenderController {
     private static final Logger log = LoggerFactory.getLogger(RenderController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    static final String CBOR = "application/cbor";
+    static final String SMILE = "application/x-jackson-smile";
+
     private final PdfRenderService service;
+    private final BatchRenderService batch;
+    private final ObjectReader budgetReader;
 
-    public RenderController(PdfRenderService service) {
+    public RenderController(PdfRenderService service, BatchRenderService batch, ObjectMapper mapper) {
         this.service = service;
+        this.batch = batch;
+        this.budgetReader = mapper.readerFor(BudgetDto.class);
     }
 
-    @PostMapping(path = "/from-payload", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<byte[]> renderFromPayload(@RequestBody BudgetDto dto) throws Exception {
+    /**
+     * Aceita JSON, CBOR ({@code application/cbor}) ou Smile ({@code application/x-jackson-smile}),
+     * todos nos mesmos DTOs; o hash canônico não depende do formato.
+     * ETag = hash canônico do payload + versões de template/layout: uma repetição com
+     * If-None-Match recebe 304 sem renderizar; fora isso, o cache evita o re-render.
+     * O PDF (do render ou do cache) é escrito na resposta bloco a bloco, com Content-Length.
+     */
+    @PostMapping(path = "/from-payload", consumes = {MediaType.APPLICATION_JSON_VALUE, CBOR, SMILE})
+    public ResponseEntity<StreamingResponseBody> renderFromPayload(@RequestBody BudgetDto dto,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
         log.debug("Recebido payload para renderização");
-        byte[] pdf = service.renderFromTemplate(dto);
+        String key = service.cacheKey(dto);
+        if (matches(ifNoneMatch, key)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakETag(key)).build();
+        }
+        PdfRenderService.Rendered pdf = service.renderFromTemplate(dto, key);
+
+        return ResponseEntity.ok()
+                .eTag(weakETag(pdf.key()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment())
+                .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(pdf.pdf().size())
+                .body(pdf.pdf()::writeTo);
+    }
+
+    /**
+     * Modo streaming ({@code ?stream=true}): o PDF é gravado direto no output stream da
+     * resposta (chunked, sem Content-Length), sem passar por um byte[] intermediário.
+     * O desenho acontece antes de responder, então erros de render ainda viram 500 normal.
+     * Com {@code ingest=stream} junto, quem atende é a ingestão (que também responde em streaming).
+     */
+    @PostMapping(path = "/from-payload", params = {"stream=true", "!ingest"}, consumes = {MediaType.APPLICATION_JSON_VALUE, CBOR, SMILE})
+    public ResponseEntity<StreamingResponseBody> renderFromPayloadStreaming(@RequestBody BudgetDto dto,
+                                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                            NativeWebRequest request) throws Exception {
+        log.debug("Recebido payload para renderização (streaming)");
+        String key = service.cacheKey(dto);
+        if (matches(ifNoneMatch, key)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(weakETag(key)).build();
+        }
+        PDDocument doc = service.renderDocument(dto);
+
+        return ResponseEntity.ok()
+                .eTag(weakETag(key))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(saveAndClose(doc, request));
+    }
+
+    /**
+     * Ingestão em streaming ({@code ?ingest=stream}): o corpo é lido item a item e as linhas
+     * são desenhadas conforme chegam, sem montar o {@link BudgetDto} — para orçamentos com
+     * dezenas de milhares de itens. O template vem de {@code ?templateId=} ou do campo
+     * templateId antes das tabelas. Sem ETag/cache. O corpo é recebido inteiro (em disco)
+     * antes de ocupar uma vaga de render.
+     */
+    @PostMapping(path = "/from-payload", params = "ingest=stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> renderFromPayloadIngest(InputStream body,
+                                                                         @RequestParam(required = false) String templateId,
+                                                                         NativeWebRequest request) throws Exception {
+        log.debug("Recebido payload para renderização (ingestão em streaming)");
+        PDDocument doc = service.renderStreaming(body, templateId);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(saveAndClose(doc, request));
+    }
+
+    /**
+     * Corpo que grava {@code doc} na resposta e o fecha. O documento também fecha no fim do
+     * request assíncrono (timeout, erro, cliente que desconectou), mesmo se o corpo nunca
+     * chegar a rodar.
+     */
+    private StreamingResponseBody saveAndClose(PDDocument doc, NativeWebRequest request) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(doc, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest r, Callable<T> task) throws Exception {
+                doc.close();
+            }
+        });
+        return out -> {
+            try (doc) {
+                service.save(doc, out);
+            }
+        };
+    }
+
+    /** Fraco: re-renders geram o mesmo conteúdo, mas o /ID do trailer muda a cada save. */
+    private static String weakETag(String key) {
+        return "W/\"" + key + "\"";
+    }
 
-        // força download com o nome do ORIGINAL
-        String cd = ContentDisposition.attachment()
+    /**
+     * If-None-Match contém exatamente o ETag (aceita lista e W/). Fora da RFC 9110 de
+     * propósito: para POST ela pede 412, mas aqui o POST é uma leitura (mesmo payload, mesmo
+     * PDF) e só o ETag exato vira 304. "*" é ignorado — casaria com todo payload e o
+     * cliente nunca receberia o PDF.
+     */
+    static boolean matches(String ifNoneMatch, String key) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("\"" + key + "\"")) return true;
+        }
+        return false;
+    }
+
+    /** Força download com o nome do ORIGINAL. */
+    static String attachment() {
+        return ContentDisposition.attachment()
                 .filename("STONGEL - PDF-ORIGINAL.pdf")
                 .build()
                 .toString();
+    }
 
+    /**
+     * Lote: array JSON ou NDJSON de orçamentos.
+     *  - padrão: ZIP (orcamento-0001.pdf, ... + status.json), lido e escrito em streaming;
+     *  - {@code ?merge=true}: um único PDF com todos, na ordem; entradas com erro são
+     *    listadas no header X-Batch-Errors.
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<StreamingResponseBody> renderBatch(InputStream body,
+                                                             @RequestParam(defaultValue = "false") boolean merge) throws IOException {
+        if (merge) {
+            BatchRenderService.MergedResult result;
+            try (MappingIterator<BudgetDto> budgets = budgetReader.readValues(body)) {
+                result = batch.renderMerged(budgets);
+            }
+            String errors = result.statuses().stream()
+                    .filter(s -> !"ok".equals(s.status()))
+                    .map(s -> String.valueOf(s.index()))
+                    .collect(Collectors.joining(","));
+            log.debug("Lote (merge): {} entradas, erros: [{}]", result.statuses().size(), errors);
+
+            StreamingResponseBody out = os -> {
+                try (result) {
+                    result.save(os);
+                }
+            };
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("orcamentos.pdf").build().toString())
+                    .header("X-Batch-Errors", errors)
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(out);
+        }
+
+        StreamingResponseBody out = os -> {
+            try (MappingIterator<BudgetDto> budgets = budgetReader.readValues(body)) {
+                var statuses = batch.renderZip(budgets, os);
+                log.debug("Lote (zip): {} entradas", statuses.size());
+            }
+        };
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, cd)
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("orcamentos.zip").build().toString())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(out);
     }
 }
@@ -0,0 +1,126 @@
+package com.stongel.pdfdrawer.web;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.RenderJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Render assíncrono: {@code POST /render/jobs} responde 202 com o id na hora;
+ * {@code GET /render/jobs/{id}} devolve o PDF quando pronto (202 enquanto não).
+ * Repetições com a mesma Idempotency-Key (ou o mesmo orçamento) caem no mesmo job.
+ */
+@RestController
+@RequestMapping("/render/jobs")
+public class RenderJobController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    // Atributos do sendfile do Tomcat (conector NIO): ele mesmo transfere o arquivo para o socket
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final RenderJobService jobs;
+
+    public RenderJobController(RenderJobService jobs) {
+        this.jobs = jobs;
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, RenderController.CBOR, RenderController.SMILE})
+    public ResponseEntity<Map<String, Object>> submit(@RequestBody BudgetDto dto,
+                                                      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) throws Exception {
+        RenderJobService.Job job = jobs.submit(dto, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/render/jobs/" + job.getId()))
+                .body(status(job));
+    }
+
+    @GetMapping("/{id}/status")
+    public ResponseEntity<Map<String, Object>> status(@PathVariable String id) {
+        RenderJobService.Job job = jobs.get(id);
+        if (job == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(status(job));
+    }
+
+    /**
+     * PDF pronto: enviado com sendfile pelo Tomcat quando disponível; senão com
+     * {@link FileChannel#transferTo} para o output stream da resposta.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> result(@PathVariable String id, HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        RenderJobService.Job job = jobs.get(id);
+        if (job == null) return ResponseEntity.notFound().build();
+
+        switch (job.getStatus()) {
+            case QUEUED, RUNNING -> {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(jobs.retryAfterSeconds()))
+                        .body(status(job));
+            }
+            case FAILED -> {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("error", "render_failed");
+                body.put("message", job.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+            }
+            default -> {
+                try {
+                    sendFile(job.getFile(), request, response);
+                } catch (NoSuchFileException e) {
+                    // expirou entre a consulta e o envio
+                    return ResponseEntity.notFound().build();
+                }
+                return null;
+            }
+        }
+    }
+
+    private static void sendFile(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, RenderController.attachment());
+            response.setContentLengthLong(size);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long pos = 0; pos < size; ) {
+                pos += ch.transferTo(pos, size - pos, out);
+            }
+        }
+    }
+
+    private static Map<String, Object> status(RenderJobService.Job job) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", job.getId());
+        body.put("status", job.getStatus());
+        body.put("criadoEm", job.getCreatedAt());
+        body.put("concluidoEm", job.getFinishedAt());
+        if (job.getStatus() == RenderJobService.Status.DONE) body.put("bytes", job.getBytes());
+        body.put("mensagem", job.getMessage());
+        return body;
+    }
+}
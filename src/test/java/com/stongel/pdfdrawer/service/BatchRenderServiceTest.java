@@ -0,0 +1,122 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRenderServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private BatchRenderService batch;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        RenderMemory memory = new RenderMemory(new SimpleMeterRegistry(), RenderMemory.Mode.HEAP, DataSize.ofMegabytes(1), "");
+        RenderAdmission admission = new RenderAdmission(new SimpleMeterRegistry(), 1, 0, Duration.ofSeconds(2), Duration.ofSeconds(1));
+        batch = new BatchRenderService(TestRenderers.create(dir), admission, TestRenderers.MAPPER, memory, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batch.shutdown();
+    }
+
+    @Test
+    void zipComEntradaIlegivelNoMeio() throws Exception {
+        String ndjson = line("A") + "{\"materiais\":\"não é lista\"}\n" + line("C");
+
+        Map<String, byte[]> zip = renderZip(ndjson);
+
+        assertEquals(List.of("orcamento-0001.pdf", "orcamento-0003.pdf", "status.json"), List.copyOf(zip.keySet()));
+        JsonNode status = TestRenderers.MAPPER.readTree(zip.get("status.json"));
+        assertEquals(3, status.get("total").asInt());
+        assertEquals(2, status.get("ok").asInt());
+        assertEquals("erro", status.get("entradas").get(1).get("status").asText());
+        assertEquals(2, status.get("entradas").get(1).get("index").asInt());
+    }
+
+    /** JSON quebrado: não há como achar a próxima entrada, mas o ZIP termina com o status.json. */
+    @Test
+    void zipComJsonQuebradoTerminaComStatus() throws Exception {
+        Map<String, byte[]> zip = renderZip(line("A") + "{quebrado\n" + line("C"));
+
+        assertEquals(List.of("orcamento-0001.pdf", "status.json"), List.copyOf(zip.keySet()));
+        JsonNode status = TestRenderers.MAPPER.readTree(zip.get("status.json"));
+        assertEquals(2, status.get("total").asInt());
+        assertEquals("erro", status.get("entradas").get(1).get("status").asText());
+    }
+
+    /** Mais entradas que a janela; cada parte é fechada logo depois de anexada. */
+    @Test
+    void mergeEmOrdemComPartesFechadas() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append(line("Cliente " + i));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MappingIterator<BudgetDto> budgets = reader(ndjson.toString());
+             BatchRenderService.MergedResult result = batch.renderMerged(budgets)) {
+            assertEquals(5, result.statuses().size());
+            assertTrue(result.statuses().stream().allMatch(s -> "ok".equals(s.status())));
+            result.save(out);
+        }
+
+        try (PDDocument doc = Loader.loadPDF(out.toByteArray())) {
+            assertEquals(5 * 7, doc.getNumberOfPages());
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int i = 1; i <= 5; i++) {
+                stripper.setStartPage((i - 1) * 7 + 1);
+                stripper.setEndPage((i - 1) * 7 + 1);
+                assertTrue(stripper.getText(doc).contains("Cliente " + i));
+            }
+        }
+    }
+
+    private Map<String, byte[]> renderZip(String ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MappingIterator<BudgetDto> budgets = reader(ndjson)) {
+            batch.renderZip(budgets, out);
+        }
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry e; (e = zip.getNextEntry()) != null; ) {
+                entries.put(e.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static MappingIterator<BudgetDto> reader(String ndjson) throws IOException {
+        return TestRenderers.MAPPER.readerFor(BudgetDto.class).readValues(ndjson);
+    }
+
+    private static String line(String razaoSocial) {
+        return "{\"empresa\":{\"razaoSocial\":\"" + razaoSocial + "\"},\"materiais\":[{\"descricao\":\"Piso\"}]}\n";
+    }
+}
@@ -0,0 +1,69 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.dto.ItemDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BudgetStreamReaderTest {
+
+    private final BudgetStreamReader reader = new BudgetStreamReader(TestRenderers.MAPPER);
+
+    @Test
+    void itensNaOrdemComCabecalhoLidoAteAli() throws Exception {
+        String json = """
+                {"templateId":"cliente","obra":"Obra A",
+                 "materiais":[{"descricao":"M1"},{"descricao":"M2"}],
+                 "empresa":{"razaoSocial":"Depois"},
+                 "servicos":[{"descricao":"S1"}]}""";
+        List<String> events = new ArrayList<>();
+        List<BudgetDto> starts = new ArrayList<>();
+
+        BudgetDto dto = reader.read(stream(json), new BudgetStreamReader.Handler() {
+            @Override
+            public void start(BudgetDto headerSoFar) {
+                starts.add(headerSoFar);
+                events.add("start");
+            }
+
+            @Override
+            public void item(BudgetStreamReader.Section section, ItemDto item) {
+                events.add(section + ":" + item.getDescricao());
+            }
+        });
+
+        assertEquals(List.of("start", "MATERIAIS:M1", "MATERIAIS:M2", "SERVICOS:S1"), events);
+        assertEquals("cliente", starts.get(0).getTemplateId());
+        assertNull(starts.get(0).getEmpresa(), "campo depois das tabelas não é visto no start");
+        assertEquals("Depois", dto.getEmpresa().getRazaoSocial());
+        assertNull(dto.getMateriais());
+    }
+
+    @Test
+    void semItensChamaStartNoFim() throws Exception {
+        List<BudgetDto> starts = new ArrayList<>();
+        reader.read(stream("{\"obra\":\"Vazia\",\"materiais\":[]}"), new BudgetStreamReader.Handler() {
+            @Override
+            public void start(BudgetDto headerSoFar) {
+                starts.add(headerSoFar);
+            }
+
+            @Override
+            public void item(BudgetStreamReader.Section section, ItemDto item) {
+                throw new AssertionError("sem itens");
+            }
+        });
+        assertEquals(1, starts.size());
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
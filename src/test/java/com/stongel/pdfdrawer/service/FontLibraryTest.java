@@ -0,0 +1,150 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.dto.ItemDto;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FontLibraryTest {
+
+    private static final String FONT = "fonts/DejaVuSans.ttf";
+    private static final long FONT_BYTES = 759_720;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void subsetComOsGlifosUsados() throws Exception {
+        FontLibrary fonts = new FontLibrary();
+        StongelTemplateRenderer renderer = TestRenderers.create(dir, 1, fonts, FONT);
+
+        byte[] pdf = renderer.renderFromTemplate(budget()).toByteArray();
+
+        try (PDDocument doc = Loader.loadPDF(pdf)) {
+            PDType0Font type0 = assertInstanceOf(PDType0Font.class, dataFont(doc.getPage(6)));
+            assertTrue(type0.getName().matches("[A-Z]{6}\\+DejaVuSans"), type0.getName());
+            long embedded = type0.getDescendantFont().getFontDescriptor().getFontFile2().getCOSObject().getLength();
+            assertTrue(embedded > 0 && embedded < FONT_BYTES / 10, "subset com " + embedded + " bytes");
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(7);
+            stripper.setEndPage(7);
+            String text = stripper.getText(doc);
+            assertTrue(text.contains("m²"), text);
+            assertTrue(text.contains("⌀"), text);
+        }
+    }
+
+    /** Helvetica também é por documento; a cópia de thread aponta para o mesmo dicionário. */
+    @Test
+    void helveticaPorDocumento() throws Exception {
+        FontLibrary fonts = new FontLibrary();
+        try (PDDocument a = new PDDocument(); PDDocument b = new PDDocument();
+             FontLibrary.DocFont fa = fonts.open(a, null); FontLibrary.DocFont fb = fonts.open(b, null)) {
+            assertNotSame(fa.font(), fb.font());
+            PDFont copy = fa.workerCopy();
+            assertNotSame(fa.font(), copy);
+            assertSame(fa.font().getCOSObject(), copy.getCOSObject());
+        }
+        try (PDDocument c = new PDDocument(); FontLibrary.DocFont ttf = fonts.open(c, FONT)) {
+            assertNull(ttf.workerCopy(), "TTF com subset não pode ser desenhada em paralelo");
+        }
+    }
+
+    /** A tabela de larguras é por arquivo: o segundo documento já a recebe pronta, com as mesmas medidas da fonte dele. */
+    @Test
+    void largurasCompartilhadasPorFonte() throws Exception {
+        FontLibrary fonts = new FontLibrary();
+        String texto = "Porcelanato 60x60 m² ⌀12";
+        try (PDDocument a = new PDDocument(); PDDocument b = new PDDocument();
+             FontLibrary.DocFont fa = fonts.open(a, FONT); FontLibrary.DocFont fb = fonts.open(b, FONT);
+             FontLibrary.DocFont ha = fonts.open(a, null); FontLibrary.DocFont hb = fonts.open(b, null)) {
+            assertSame(fa.widths(), fb.widths());
+            assertSame(ha.widths(), hb.widths());
+            assertEquals(fb.font().getStringWidth(texto), fa.widths().width(texto));
+            assertEquals(hb.font().getStringWidth("Piso m²"), ha.widths().width("Piso m²"));
+        } finally {
+            fonts.shutdown();
+        }
+    }
+
+    /** Cada documento tem a sua TTF: dois abertos ao mesmo tempo, salvos fora de ordem. */
+    @Test
+    void documentosSimultaneosComTtfPropria() throws Exception {
+        StongelTemplateRenderer renderer = TestRenderers.create(dir, 1, new FontLibrary(), FONT);
+
+        try (PDDocument a = renderer.render(budget()); PDDocument b = renderer.render(budget())) {
+            assertSubsetWithText(save(renderer, b));
+            assertSubsetWithText(save(renderer, a));
+        }
+    }
+
+    /** No merge a parte não passa pelo save: o subset já vem feito e vai junto para o documento final. */
+    @Test
+    void subsetAntecipadoParaMerge() throws Exception {
+        StongelTemplateRenderer renderer = TestRenderers.create(dir, 1, new FontLibrary(), FONT);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument merged = new PDDocument(); PDDocument part = renderer.renderForMerge(budget())) {
+            new PDFMergerUtility().appendDocument(merged, part);
+            merged.save(out);
+        }
+        assertSubsetWithText(out.toByteArray());
+    }
+
+    private static void assertSubsetWithText(byte[] pdf) throws IOException {
+        try (PDDocument doc = Loader.loadPDF(pdf)) {
+            PDType0Font type0 = assertInstanceOf(PDType0Font.class, dataFont(doc.getPage(6)));
+            assertTrue(type0.getName().matches("[A-Z]{6}\\+DejaVuSans"), type0.getName());
+            assertTrue(new PDFTextStripper().getText(doc).contains("m²"));
+        }
+    }
+
+    private static PDFont dataFont(PDPage page) throws IOException {
+        PDFont found = null;
+        for (COSName name : page.getResources().getFontNames()) {
+            found = page.getResources().getFont(name);
+        }
+        return found;
+    }
+
+    private static byte[] save(StongelTemplateRenderer renderer, PDDocument doc) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.save(doc, out);
+        return out.toByteArray();
+    }
+
+    private static BudgetDto budget() {
+        ItemDto item = new ItemDto();
+        item.setDescricao("Porcelanato 60x60 m²");
+        item.setComp("⌀12");
+        item.setUnidade("m²");
+        item.setQuantidade(new BigDecimal("12.5"));
+        item.setCusto(new BigDecimal("49.90"));
+        item.setPrecoVenda(new BigDecimal("79.90"));
+        BudgetDto dto = new BudgetDto();
+        dto.setMateriais(List.of(item));
+        return dto;
+    }
+}
@@ -0,0 +1,40 @@
+package com.stongel.pdfdrawer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LayoutHolderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reloadComJsonInvalidoMantemOLayoutAtual() throws Exception {
+        Path file = dir.resolve("coords.json");
+        Files.writeString(file, "{\"pageIndexes\":{\"headerTotais\":1,\"tables\":3}}");
+        LayoutHolder holder = new LayoutHolder(file.toString());
+        Layout loaded = holder.reload();
+        assertEquals(3, loaded.pageTables());
+
+        Files.writeString(file, "{\"pageIndexes\":{\"tab");
+        assertSame(loaded, holder.reload());
+        assertSame(loaded, holder.current());
+
+        Files.writeString(file, "{\"pageIndexes\":{\"headerTotais\":1,\"tables\":4}}");
+        assertEquals(4, holder.reload().pageTables());
+    }
+
+    @Test
+    void primeiraCargaSemArquivoUsaConfiguracaoMinima() {
+        LayoutHolder holder = new LayoutHolder(dir.resolve("nao-existe.json").toString());
+        Layout layout = holder.reload();
+        assertEquals(0, layout.pageHeaderTotais());
+        assertEquals(6, layout.pageTables());
+    }
+}
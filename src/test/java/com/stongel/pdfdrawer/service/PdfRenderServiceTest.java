@@ -0,0 +1,134 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PdfRenderServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StongelTemplateRenderer renderer = mock(StongelTemplateRenderer.class);
+    private final TemplateRegistry templates = mock(TemplateRegistry.class);
+    private final TemplateRegistry.Lease lease = mock(TemplateRegistry.Lease.class);
+    private RenderCache cache;
+    private PdfRenderService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(templates.acquire(any())).thenReturn(lease);
+        when(lease.versionKey()).thenReturn("t1|l1");
+        cache = new RenderCache(DataSize.ofMegabytes(1), "", DataSize.ofBytes(0));
+        RenderAdmission admission = new RenderAdmission(registry, 2, 0, Duration.ofSeconds(5), Duration.ofSeconds(1));
+        service = new PdfRenderService(renderer, cache, templates, admission, registry,
+                Duration.ofSeconds(10), Duration.ofSeconds(1), DataSize.ofKilobytes(1), dir.resolve("ingest").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    /** Requisições iguais e simultâneas: um render só, todas recebem os mesmos bytes. */
+    @Test
+    void requisicoesIguaisCompartilhamUmRender() throws Exception {
+        ChunkedBytes pdf = ChunkedBytes.of(new byte[]{1, 2, 3});
+        CountDownLatch release = new CountDownLatch(1);
+        when(renderer.renderFromTemplate(any(), any())).thenAnswer(inv -> {
+            release.await();
+            return pdf;
+        });
+        BudgetDto dto = new BudgetDto();
+        String key = cache.key(dto, "t1|l1");
+
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<PdfRenderService.Rendered>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> service.renderFromTemplate(dto, key)));
+            }
+            waitUntil(() -> registry.get("pdf.render.coalesced").counter().count() == callers - 1);
+            release.countDown();
+            for (Future<PdfRenderService.Rendered> f : results) {
+                assertSame(pdf, f.get(5, TimeUnit.SECONDS).pdf());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(renderer, times(1)).renderFromTemplate(any(), any());
+
+        // Depois do render compartilhado, a mesma chave sai do cache
+        assertSame(pdf, service.renderFromTemplate(dto, key).pdf());
+        verify(renderer, times(1)).renderFromTemplate(any(), any());
+    }
+
+    /** Hot reload entre o cálculo da chave e o render: o PDF fica com a chave da versão que o gerou. */
+    @Test
+    void chaveVemDaVersaoUsadaNoRender() throws Exception {
+        ChunkedBytes pdf = ChunkedBytes.of(new byte[]{4, 5, 6});
+        when(renderer.renderFromTemplate(any(), any())).thenReturn(pdf);
+        when(lease.versionKey()).thenReturn("t2|l1");
+        BudgetDto dto = new BudgetDto();
+        String antiga = cache.key(dto, "t1|l1");
+        String atual = cache.key(dto, "t2|l1");
+
+        PdfRenderService.Rendered rendered = service.renderFromTemplate(dto, antiga);
+
+        assertEquals(atual, rendered.key());
+        assertNull(cache.get(antiga));
+        assertSame(pdf, cache.get(atual));
+        verify(renderer).renderFromTemplate(dto, lease);
+    }
+
+    @Test
+    void ingestaoAcimaDoLimiteNaoRenderiza() throws Exception {
+        byte[] big = new byte[2048];
+        assertThrows(PayloadTooLargeException.class,
+                () -> service.renderStreaming(new ByteArrayInputStream(big), null));
+        verifyNoInteractions(renderer);
+        try (Stream<Path> files = Files.list(dir.resolve("ingest"))) {
+            assertEquals(0, files.count(), "arquivo temporário deveria ser apagado");
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condição não atingida");
+            Thread.sleep(5);
+        }
+    }
+}
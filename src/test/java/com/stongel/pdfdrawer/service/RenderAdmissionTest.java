@@ -0,0 +1,100 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.web.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderAdmissionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void esperaEsgotadaVira503ComRetryAfter() throws Exception {
+        RenderAdmission admission = new RenderAdmission(registry, 1, 4, Duration.ofMillis(50), Duration.ofSeconds(3));
+
+        RenderAdmission.Permit held = admission.acquire();
+        try {
+            RenderOverloadedException e = assertThrows(RenderOverloadedException.class,
+                    () -> admission.run(() -> "não roda"));
+            assertEquals(3, e.getRetryAfterSeconds());
+
+            ResponseEntity<?> response = new GlobalExceptionHandler().handleOverloaded(e);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        } finally {
+            held.close();
+        }
+        assertEquals(1.0, registry.get("pdf.render.rejected").tag("reason", "timeout").counter().count());
+        assertEquals("ok", admission.run(() -> "ok"));
+    }
+
+    @Test
+    void filaCheiaRecusaNaHora() throws Exception {
+        RenderAdmission admission = new RenderAdmission(registry, 1, 1, Duration.ofSeconds(10), Duration.ofSeconds(1));
+        RenderAdmission.Permit held = admission.acquire();
+
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> call(admission));
+        waitUntil(() -> registry.get("pdf.render.queue.depth").gauge().value() == 1.0);
+
+        assertThrows(RenderOverloadedException.class, () -> admission.run(() -> "não roda"));
+        assertEquals(1.0, registry.get("pdf.render.rejected").tag("reason", "queue_full").counter().count());
+
+        held.close();
+        assertEquals("ok", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /** Lote e jobs disputam as mesmas vagas, mas esperam sem prazo em vez de receber 503. */
+    @Test
+    void loteEsperaAVagaSemPrazo() throws Exception {
+        RenderAdmission admission = new RenderAdmission(registry, 1, 1, Duration.ofMillis(10), Duration.ofSeconds(1));
+        RenderAdmission.Permit held = admission.acquire();
+
+        CountDownLatch ran = new CountDownLatch(1);
+        CompletableFuture<Void> background = CompletableFuture.runAsync(() -> {
+            try {
+                admission.runBackground(() -> {
+                    ran.countDown();
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertFalse(ran.await(200, TimeUnit.MILLISECONDS), "rodou sem vaga");
+        assertEquals(1.0, registry.get("pdf.render.slots.active").gauge().value());
+        held.close();
+        held.close(); // devolver duas vezes não cria vaga extra
+        background.get(5, TimeUnit.SECONDS);
+        assertEquals(0.0, registry.get("pdf.render.slots.active").gauge().value());
+    }
+
+    private static String call(RenderAdmission admission) {
+        try {
+            return admission.run(() -> "ok");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condição não atingida");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RenderJobServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final PdfRenderService service = mock(PdfRenderService.class);
+    private final BudgetDto a = new BudgetDto();
+    private final BudgetDto b = new BudgetDto();
+    private RenderJobService jobs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(service.cacheKey(a)).thenReturn("hash-a");
+        when(service.cacheKey(b)).thenReturn("hash-b");
+        doAnswer(inv -> {
+            inv.getArgument(2, OutputStream.class).write(new byte[]{'%', 'P', 'D', 'F'});
+            return null;
+        }).when(service).renderTo(any(), anyString(), any());
+        jobs = new RenderJobService(service, dir.toString(), 1, 10, Duration.ofHours(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobs.shutdown();
+    }
+
+    @Test
+    void mesmaChaveDevolveOMesmoJob() throws Exception {
+        RenderJobService.Job first = jobs.submit(a, "k1");
+        assertSame(first, jobs.submit(a, "k1"));
+
+        waitDone(first);
+        assertEquals(RenderJobService.Status.DONE, first.getStatus());
+        assertArrayEquals(new byte[]{'%', 'P', 'D', 'F'}, Files.readAllBytes(first.getFile()));
+        verify(service, times(1)).renderTo(any(), anyString(), any());
+    }
+
+    @Test
+    void mesmaChaveComOutroOrcamentoEhConflito() throws Exception {
+        RenderJobService.Job first = jobs.submit(a, "k1");
+        assertThrows(IdempotencyConflictException.class, () -> jobs.submit(b, "k1"));
+        waitDone(first); // o @TempDir só pode ser apagado depois que o job gravar
+    }
+
+    private static void waitDone(RenderJobService.Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.getStatus() == RenderJobService.Status.QUEUED || job.getStatus() == RenderJobService.Status.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "job não terminou");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.stongel.pdfdrawer.service;
+
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StongelTemplateRendererTest {
+
+    @TempDir
+    Path dir;
+
+    /** Páginas geradas em paralelo têm exatamente o mesmo conteúdo da geração sequencial. */
+    @Test
+    void paraleloIgualAoSequencial() throws Exception {
+        BudgetDto dto = budget(300, 120);
+
+        List<byte[]> serial = contents(dto, 1);
+        List<byte[]> parallel = contents(dto, 4);
+
+        assertTrue(serial.size() > 3, "orçamento deveria ter várias páginas de tabela");
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertArrayEquals(serial.get(i), parallel.get(i), "página " + (i + 1));
+        }
+    }
+
+    /** Tabela maior que a área: quebra exatamente na capacidade, uma continuação por bloco. */
+    @Test
+    void paginacaoQuebraNaCapacidade() throws Exception {
+        StongelTemplateRenderer renderer = TestRenderers.create(dir);
+        Layout layout = new LayoutHolder(dir.resolve("coords.json").toString()).reload();
+        int cap = layout.materiais().capacity();
+        int first = layout.pageTables();
+
+        try (PDDocument doc = renderer.render(budget(2 * cap + 1, 0))) {
+            assertEquals(7 + 2, doc.getNumberOfPages());
+            String p1 = text(doc, first);
+            String p2 = text(doc, first + 1);
+            String p3 = text(doc, first + 2);
+            assertTrue(hasItem(p1, 1) && hasItem(p1, cap) && !hasItem(p1, cap + 1));
+            assertTrue(hasItem(p2, cap + 1) && hasItem(p2, 2 * cap) && !hasItem(p2, 2 * cap + 1));
+            assertTrue(hasItem(p3, 2 * cap + 1));
+        }
+        try (PDDocument doc = renderer.render(budget(cap, 0))) {
+            assertEquals(7, doc.getNumberOfPages());
+        }
+    }
+
+    @Test
+    void streamingDesenhaAsMesmasLinhas() throws Exception {
+        StongelTemplateRenderer renderer = TestRenderers.create(dir);
+        BudgetDto dto = budget(200, 50);
+        byte[] json = TestRenderers.MAPPER.writeValueAsBytes(dto);
+
+        try (PDDocument materialized = renderer.render(dto);
+             PDDocument streamed = renderer.renderStreaming(new ByteArrayInputStream(json), null)) {
+            assertEquals(materialized.getNumberOfPages(), streamed.getNumberOfPages());
+            for (int i = 0; i < materialized.getNumberOfPages(); i++) {
+                assertEquals(text(materialized, i), text(streamed, i), "página " + (i + 1));
+            }
+        }
+    }
+
+    @Test
+    void streamingRecusaTemplateIdDepoisDasTabelas() throws Exception {
+        StongelTemplateRenderer renderer = TestRenderers.create(dir);
+        String json = "{\"materiais\":[{\"descricao\":\"Piso\"}],\"templateId\":\"outro\"}";
+
+        UnknownTemplateException e = assertThrows(UnknownTemplateException.class,
+                () -> renderer.renderStreaming(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null));
+        assertTrue(e.getMessage().contains("antes de materiais"));
+    }
+
+    /** MIXED: o que passa do orçamento de heap vai para disco e some quando o documento fecha. */
+    @Test
+    void mixedApagaArquivosTemporariosAoFechar() throws Exception {
+        StongelTemplateRenderer renderer = TestRenderers.create(dir, 1, new FontLibrary(), null, RenderMemory.Mode.MIXED);
+        Path scratch = dir.resolve("scratch");
+
+        PDDocument doc = renderer.render(budget(300, 100));
+        try {
+            assertEquals(1, count(scratch), "diretório do render deveria existir enquanto o documento está aberto");
+            renderer.save(doc, OutputStream.nullOutputStream());
+        } finally {
+            doc.close();
+        }
+        assertEquals(0, count(scratch));
+    }
+
+    private static long count(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.count();
+        }
+    }
+
+    private static String text(PDDocument doc, int pageIndex) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(pageIndex + 1);
+        stripper.setEndPage(pageIndex + 1);
+        return stripper.getText(doc);
+    }
+
+    private static boolean hasItem(String text, int n) {
+        return Pattern.compile("Material " + n + "\\b").matcher(text).find();
+    }
+
+    private List<byte[]> contents(BudgetDto dto, int parallelism) throws Exception {
+        Path sub = Files.createDirectories(dir.resolve("p" + parallelism));
+        StongelTemplateRenderer renderer = TestRenderers.create(sub, parallelism, new FontLibrary(), null);
+        try (PDDocument doc = renderer.render(dto)) {
+            List<byte[]> pages = new ArrayList<>();
+            for (int i = 0; i < doc.getNumberOfPages(); i++) {
+                try (InputStream in = doc.getPage(i).getContents()) {
+                    pages.add(in.readAllBytes());
+                }
+            }
+            return pages;
+        } finally {
+            renderer.shutdown();
+        }
+    }
+
+    static BudgetDto budget(int materiais, int servicos) throws IOException {
+        StringBuilder json = new StringBuilder("{\"empresa\":{\"razaoSocial\":\"Cliente\"},\"obra\":\"Obra\"");
+        json.append(",\"materiais\":").append(items("Material", materiais));
+        json.append(",\"servicos\":").append(items("Serviço", servicos));
+        return TestRenderers.MAPPER.readValue(json.append('}').toString(), BudgetDto.class);
+    }
+
+    private static String items(String prefix, int n) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= n; i++) {
+            if (i > 1) sb.append(',');
+            sb.append("{\"descricao\":\"").append(prefix).append(' ').append(i)
+                    .append("\",\"unidade\":\"m²\",\"quantidade\":").append(i)
+                    .append(",\"precoVenda\":").append(i).append(".5}");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.stongel.pdfdrawer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemplateRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    private TemplateRegistry registry() throws Exception {
+        Path base = Files.createDirectories(dir.resolve("base"));
+        TemplateEngine templates = new TemplateEngine(TestRenderers.writeTemplate(dir).toString());
+        templates.reload();
+        LayoutHolder layouts = new LayoutHolder(dir.resolve("sem-layout.json").toString());
+        layouts.reload();
+        return new TemplateRegistry(templates, layouts, base.toUri().toString(), DataSize.ofMegabytes(64));
+    }
+
+    @Test
+    void cargasConcorrentesDoMesmoIdCompartilhamAVariante() throws Exception {
+        TemplateRegistry registry = registry();
+        Files.copy(dir.resolve("template.pdf"), dir.resolve("base/cliente.pdf"));
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TemplateRegistry.Lease>> leases = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                leases.add(pool.submit(() -> {
+                    start.await();
+                    return registry.acquire("cliente");
+                }));
+            }
+            start.countDown();
+            PdfTemplate first = leases.get(0).get().template();
+            for (Future<TemplateRegistry.Lease> f : leases) {
+                try (TemplateRegistry.Lease lease = f.get()) {
+                    assertSame(first, lease.template());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Uma carga que falhou não deixa rastro: a próxima tentativa lê o disco de novo. */
+    @Test
+    void falhaNaCargaNaoFicaPresa() throws Exception {
+        TemplateRegistry registry = registry();
+        for (int i = 0; i < 100; i++) {
+            String id = "desconhecido-" + i;
+            assertThrows(UnknownTemplateException.class, () -> registry.acquire(id));
+        }
+        assertThrows(UnknownTemplateException.class, () -> registry.acquire("tardio"));
+
+        Files.copy(dir.resolve("template.pdf"), dir.resolve("base/tardio.pdf"));
+        try (TemplateRegistry.Lease lease = registry.acquire("tardio")) {
+            assertEquals(7, lease.template().getPageCount());
+        }
+    }
+}
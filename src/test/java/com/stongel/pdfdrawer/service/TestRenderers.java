@@ -0,0 +1,84 @@
+package com.stongel.pdfdrawer.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Renderer montado à mão (sem Spring) para os testes: template sintético de 7 páginas A4
+ * (o PDF real não fica no repositório) e o layout do classpath, gravados em {@code dir}.
+ */
+final class TestRenderers {
+
+    static final ObjectMapper MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private TestRenderers() {}
+
+    static StongelTemplateRenderer create(Path dir) throws IOException {
+        return create(dir, 1, new FontLibrary(), null);
+    }
+
+    /** {@code fontPath}: valor de "fonts.regular" no layout (null = Helvetica). */
+    static StongelTemplateRenderer create(Path dir, int pageParallelism, FontLibrary fonts, String fontPath) throws IOException {
+        return create(dir, pageParallelism, fonts, fontPath, RenderMemory.Mode.HEAP);
+    }
+
+    static StongelTemplateRenderer create(Path dir, int pageParallelism, FontLibrary fonts, String fontPath,
+                                          RenderMemory.Mode memoryMode) throws IOException {
+        TemplateEngine templates = new TemplateEngine(writeTemplate(dir).toString());
+        templates.reload();
+        LayoutHolder layouts = new LayoutHolder(writeLayout(dir, fontPath).toString());
+        layouts.reload();
+        TemplateRegistry registry = new TemplateRegistry(templates, layouts, dir.toUri().toString(), DataSize.ofMegabytes(64));
+        RenderMemory memory = new RenderMemory(new SimpleMeterRegistry(), memoryMode, DataSize.ofKilobytes(1),
+                dir.resolve("scratch").toString());
+        return new StongelTemplateRenderer(registry, new RenderMetrics(new SimpleMeterRegistry()), fonts,
+                new BudgetStreamReader(MAPPER), memory,
+                pageParallelism, false, CompressionProfile.PACKED, DataSize.ofMegabytes(1));
+    }
+
+    /** Template com 7 páginas (cabeçalho na 1ª, tabelas na 7ª), cada uma com um pouco de conteúdo. */
+    static Path writeTemplate(Path dir) throws IOException {
+        Path file = dir.resolve("template.pdf");
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 0; i < 7; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                    cs.addRect(36, 36, 523, 770);
+                    cs.stroke();
+                }
+            }
+            doc.save(file.toFile());
+        }
+        return file;
+    }
+
+    private static Path writeLayout(Path dir, String fontPath) throws IOException {
+        ObjectNode cfg;
+        try (InputStream in = new ClassPathResource(LayoutHolder.LAYOUT_PATH).getInputStream()) {
+            cfg = (ObjectNode) MAPPER.readTree(in);
+        }
+        if (fontPath != null) {
+            cfg.putObject("fonts").put("regular", fontPath);
+        }
+        Path file = dir.resolve("coords.json");
+        Files.write(file, MAPPER.writeValueAsBytes(cfg));
+        return file;
+    }
+}
@@ -0,0 +1,83 @@
+package com.stongel.pdfdrawer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BRFormatTest {
+
+    private static final Locale PTBR = Locale.of("pt", "BR");
+
+    @Test
+    void igualAoNumberFormatEmCasosDeBorda() {
+        NumberFormat moeda = NumberFormat.getCurrencyInstance(PTBR);
+        NumberFormat num = NumberFormat.getNumberInstance(PTBR);
+        String[] valores = {
+                "0", "0.00", "7", "7.00", "376.82", "53.83", "1234.5", "1234567.891",
+                "0.005", "0.015", "0.025", "2.5", "3.5", "0.0005", "0.0015", "-0.001",
+                "-1234.565", "999999.995", "1E+3", "1.2E+5", "0.1234567890123456789",
+                "123456789012345678901234.5678", "-0", "100000000000000000.005"
+        };
+        for (String s : valores) {
+            BigDecimal v = new BigDecimal(s);
+            assertEquals(moeda.format(v), BRFormat.moeda(v), "moeda " + s);
+            assertEquals(num.format(v), BRFormat.numero(v), "numero " + s);
+        }
+    }
+
+    @Test
+    void numeroAceitaTiposPrimitivos() {
+        NumberFormat num = NumberFormat.getNumberInstance(PTBR);
+        assertEquals(num.format(42L), BR.numero(42));
+        assertEquals(num.format(1234567L), BR.numero(1234567L));
+        assertEquals(num.format(12.5d), BR.numero(12.5d));
+        assertEquals("-", BR.numero(null));
+        assertEquals("-", BR.moeda((Number) null));
+    }
+
+    /** Várias threads formatando ao mesmo tempo; cada uma compara com seu próprio NumberFormat. */
+    @Test
+    void estresseConcorrente() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int iteracoes = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> fs = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = 1234L + t;
+                Callable<Integer> job = () -> {
+                    NumberFormat moeda = NumberFormat.getCurrencyInstance(PTBR);
+                    NumberFormat num = NumberFormat.getNumberInstance(PTBR);
+                    SplittableRandom rnd = new SplittableRandom(seed);
+                    largada.await();
+                    for (int i = 0; i < iteracoes; i++) {
+                        BigDecimal v = BigDecimal.valueOf(rnd.nextLong(-10_000_000_000L, 10_000_000_000L), rnd.nextInt(-2, 7));
+                        assertEquals(moeda.format(v), BR.moeda(v), () -> "moeda " + v);
+                        assertEquals(num.format(v), BR.numero(v), () -> "numero " + v);
+                    }
+                    return iteracoes;
+                };
+                fs.add(pool.submit(job));
+            }
+            largada.countDown();
+            for (Future<Integer> f : fs) {
+                assertEquals(iteracoes, f.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.stongel.pdfdrawer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkedOutputStreamTest {
+
+    /** Propriedade: escritas aleatórias (byte a byte e em blocos) dão o mesmo que um ByteArrayOutputStream. */
+    @Test
+    void mesmoConteudoQueByteArrayOutputStream() throws IOException {
+        SplittableRandom rnd = new SplittableRandom(20240719L);
+        ChunkPool pool = new ChunkPool(4L * ChunkPool.CHUNK);
+        for (int caso = 0; caso < 200; caso++) {
+            ByteArrayOutputStream esperado = new ByteArrayOutputStream();
+            ChunkedOutputStream out = new ChunkedOutputStream(pool, rnd.nextInt(0, 3 * ChunkPool.CHUNK));
+            try {
+                int escritas = rnd.nextInt(0, 40);
+                for (int i = 0; i < escritas; i++) {
+                    if (rnd.nextBoolean()) {
+                        int b = rnd.nextInt(256);
+                        out.write(b);
+                        esperado.write(b);
+                    } else {
+                        byte[] bloco = new byte[rnd.nextInt(0, ChunkPool.CHUNK + 100)];
+                        rnd.nextBytes(bloco);
+                        int off = rnd.nextInt(0, bloco.length + 1);
+                        int len = rnd.nextInt(0, bloco.length - off + 1);
+                        out.write(bloco, off, len);
+                        esperado.write(bloco, off, len);
+                    }
+                }
+                out.close(); // como o save do PDFBox faz; o conteúdo continua disponível
+                assertEquals(esperado.size(), out.size());
+                assertArrayEquals(esperado.toByteArray(), out.toByteArray());
+
+                ByteArrayOutputStream copia = new ByteArrayOutputStream();
+                out.writeTo(copia);
+                assertArrayEquals(esperado.toByteArray(), copia.toByteArray());
+
+                ChunkedBytes blocos = out.detach();
+                assertEquals(esperado.size(), blocos.size());
+                assertArrayEquals(esperado.toByteArray(), blocos.toByteArray());
+                copia.reset();
+                blocos.writeTo(copia);
+                assertArrayEquals(esperado.toByteArray(), copia.toByteArray());
+                assertThrows(IOException.class, out::toByteArray);
+            } finally {
+                out.release();
+            }
+        }
+    }
+
+    /** Os blocos cheios vão com o conteúdo; o parcial (copiado) e os reservados sem uso voltam ao pool. */
+    @Test
+    void detachEntregaOsBlocosCheiosEDevolveOResto() throws IOException {
+        ChunkPool pool = new ChunkPool(8L * ChunkPool.CHUNK);
+        ChunkedOutputStream out = new ChunkedOutputStream(pool, 4L * ChunkPool.CHUNK);
+        out.write(new byte[ChunkPool.CHUNK + 10]);
+        ChunkedBytes pdf = out.detach();
+        assertEquals(ChunkPool.CHUNK + 10, pdf.size());
+        assertEquals(3, pool.available());
+        out.release(); // sem efeito: os blocos já saíram
+        assertEquals(3, pool.available());
+    }
+
+    @Test
+    void blocosVoltamAoPoolLimitado() throws IOException {
+        ChunkPool pool = new ChunkPool(2L * ChunkPool.CHUNK);
+        ChunkedOutputStream out = new ChunkedOutputStream(pool, 5L * ChunkPool.CHUNK);
+        out.write(new byte[10]);
+        out.release();
+        assertEquals(2, pool.available());
+        assertThrows(IOException.class, () -> out.write(1));
+        assertThrows(IOException.class, out::toByteArray);
+    }
+}
@@ -0,0 +1,111 @@
+package com.stongel.pdfdrawer.util;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GlyphWidthsTest {
+
+    private static final String ALFABETO =
+            " abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.,;:-/()%$@&*+=#!?'\"" +
+            "áàâãéêíóôõúüçÁÀÂÃÉÊÍÓÔÕÚÜÇ²³ºª°µ€";
+
+    private static final PDFont[] FONTES = {
+            new PDType1Font(Standard14Fonts.FontName.HELVETICA),
+            new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD),
+            new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN),
+            new PDType1Font(Standard14Fonts.FontName.COURIER)
+    };
+    private static final GlyphWidths[] LARGURAS = Arrays.stream(FONTES).map(GlyphWidths::new).toArray(GlyphWidths[]::new);
+
+    /** Propriedade: para strings aleatórias, a largura é idêntica (bit a bit) à do PDFBox. */
+    @Test
+    void larguraIgualAoPdfBox() throws IOException {
+        SplittableRandom rnd = new SplittableRandom(20240611L);
+        for (int caso = 0; caso < 5_000; caso++) {
+            int f = rnd.nextInt(FONTES.length);
+            String s = aleatoria(rnd, rnd.nextInt(0, 80));
+            assertEquals(FONTES[f].getStringWidth(s), LARGURAS[f].width(s), () -> "\"" + s + "\"");
+        }
+    }
+
+    /** Propriedade: medir a + b de forma incremental dá o mesmo que medir a concatenação. */
+    @Test
+    void medicaoIncrementalIgualAConcatenacao() throws IOException {
+        SplittableRandom rnd = new SplittableRandom(7L);
+        for (int caso = 0; caso < 5_000; caso++) {
+            int f = rnd.nextInt(FONTES.length);
+            PDFont font = FONTES[f];
+            GlyphWidths gw = LARGURAS[f];
+            String a = aleatoria(rnd, rnd.nextInt(0, 60));
+            String b = aleatoria(rnd, rnd.nextInt(0, 20));
+            assertEquals(font.getStringWidth(a + " " + b), gw.add(gw.advance(' ') + gw.width(a), b),
+                    () -> "\"" + a + "\" + \"" + b + "\"");
+        }
+    }
+
+    @Test
+    void caractereNaoCodificavelFalhaComoNoPdfBox() {
+        assertThrows(IllegalArgumentException.class, () -> FONTES[0].getStringWidth("⌀"));
+        assertThrows(IllegalArgumentException.class, () -> LARGURAS[0].width("⌀"));
+    }
+
+    /** Uma tabela nova medida por várias threads ao mesmo tempo dá as mesmas larguras do PDFBox. */
+    @Test
+    void tabelaCompartilhadaEntreThreads() throws Exception {
+        PDFont font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        PDFont referencia = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        GlyphWidths gw = new GlyphWidths(font);
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long seed = t;
+                tarefas.add(pool.submit(() -> {
+                    SplittableRandom rnd = new SplittableRandom(seed);
+                    for (int caso = 0; caso < 500; caso++) {
+                        String s = aleatoria(rnd, rnd.nextInt(0, 40));
+                        float esperado;
+                        synchronized (referencia) {
+                            esperado = referencia.getStringWidth(s);
+                        }
+                        assertEquals(esperado, gw.width(s), () -> "\"" + s + "\"");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> t : tarefas) {
+                t.get();
+            }
+        }
+    }
+
+    @Test
+    void encodableTrocaSoOQueAFonteNaoTem() {
+        GlyphWidths gw = LARGURAS[0];
+        String ok = "Piso m² – ação";
+        assertSame(ok, gw.encodable(ok));
+        assertEquals("Tubo ? 10mm ?", gw.encodable("Tubo ⌀ 10mm ✓"));
+    }
+
+    private static String aleatoria(SplittableRandom rnd, int len) {
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            sb.append(ALFABETO.charAt(rnd.nextInt(ALFABETO.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.stongel.pdfdrawer.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextRunTest {
+
+    private static final PDFont FONT = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private static final GlyphWidths WIDTHS = new GlyphWidths(FONT);
+    private static final float[] COLS = {60, 300, 340, 380, 420, 470, 530, 585};
+
+    @Test
+    void agrupaLinhasSemAlterarOTexto() throws IOException {
+        Result porCelula = render(false);
+        Result agrupado = render(true);
+
+        assertEquals(porCelula.text, agrupado.text);
+        assertTrue(agrupado.contentBytes < porCelula.contentBytes * 0.7,
+                "esperado < 70%: " + agrupado.contentBytes + " x " + porCelula.contentBytes);
+    }
+
+    private record Result(String text, int contentBytes) {}
+
+    private static Result render(boolean agrupado) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page, AppendMode.APPEND, false)) {
+                TextRun run = new TextRun(cs, WIDTHS);
+                float y = 800f;
+                for (int r = 0; r < 45; r++) {
+                    for (int c = 0; c < COLS.length; c++) {
+                        String cell = "L" + r + "C" + c;
+                        if (agrupado) {
+                            run.show(FONT, 10f, COLS[c], y, cell);
+                        } else {
+                            BR.drawText(cs, FONT, 10f, COLS[c], y, cell);
+                        }
+                    }
+                    y -= 16f;
+                }
+                run.close();
+            }
+
+            int size;
+            try (InputStream in = page.getContents()) {
+                size = in.readAllBytes().length;
+            }
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            return new Result(stripper.getText(doc), size);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.stongel.pdfdrawer.web;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.stongel.pdfdrawer.dto.BudgetDto;
+import com.stongel.pdfdrawer.service.BatchRenderService;
+import com.stongel.pdfdrawer.service.PdfRenderService;
+import com.stongel.pdfdrawer.util.ChunkedBytes;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RenderControllerTest {
+
+    private final PdfRenderService service = mock(PdfRenderService.class);
+    private final RenderController controller =
+            new RenderController(service, mock(BatchRenderService.class), JsonMapper.builder().build());
+
+    @Test
+    void mesmoETagRecebe304SemRenderizar() throws Exception {
+        BudgetDto dto = new BudgetDto();
+        when(service.cacheKey(dto)).thenReturn("abc");
+
+        ResponseEntity<StreamingResponseBody> res = controller.renderFromPayload(dto, "W/\"abc\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, res.getStatusCode());
+        assertEquals("W/\"abc\"", res.getHeaders().getETag());
+        verify(service, never()).renderFromTemplate(any(), anyString());
+    }
+
+    @Test
+    void etagDiferenteRenderizaEDevolveOETag() throws Exception {
+        BudgetDto dto = new BudgetDto();
+        byte[] pdf = {1, 2, 3};
+        when(service.cacheKey(dto)).thenReturn("abc");
+        when(service.renderFromTemplate(dto, "abc")).thenReturn(new PdfRenderService.Rendered("abc", ChunkedBytes.of(pdf)));
+
+        ResponseEntity<StreamingResponseBody> res = controller.renderFromPayload(dto, "W/\"outro\", *");
+
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals("W/\"abc\"", res.getHeaders().getETag());
+        assertEquals(pdf.length, res.getHeaders().getContentLength());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        res.getBody().writeTo(body);
+        assertArrayEquals(pdf, body.toByteArray());
+    }
+
+    /** Se o corpo nunca rodar (timeout/erro do request assíncrono), o documento fecha no fim do request. */
+    @Test
+    void streamingFechaODocumentoNoFimDoRequest() throws Exception {
+        BudgetDto dto = new BudgetDto();
+        PDDocument doc = new PDDocument();
+        when(service.cacheKey(dto)).thenReturn("abc");
+        when(service.renderDocument(dto)).thenReturn(doc);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        ResponseEntity<StreamingResponseBody> res = controller.renderFromPayloadStreaming(dto, null, request);
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertFalse(doc.getDocument().isClosed());
+
+        WebAsyncUtils.getAsyncManager(request).getCallableInterceptor(doc).afterCompletion(request, () -> null);
+        assertTrue(doc.getDocument().isClosed());
+    }
+
+    /** stream=true junto com ingest=stream vai só para a ingestão (sem mapeamento ambíguo). */
+    @Test
+    void streamComIngestVaiParaAIngestao() throws Exception {
+        when(service.renderStreaming(any(), any())).thenReturn(new PDDocument());
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mvc.perform(post("/render/from-payload?stream=true&ingest=stream")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+
+        verify(service).renderStreaming(any(), any());
+        verify(service, never()).renderDocument(any());
+    }
+
+    @Test
+    void ifNoneMatchSoCasaComOETagExato() {
+        assertTrue(RenderController.matches("W/\"abc\"", "abc"));
+        assertTrue(RenderController.matches("\"abc\"", "abc"));
+        assertTrue(RenderController.matches("\"x\", W/\"abc\"", "abc"));
+
+        assertFalse(RenderController.matches("*", "abc"));
+        assertFalse(RenderController.matches("W/\"abcd\"", "abc"));
+        assertFalse(RenderController.matches("", "abc"));
+        assertFalse(RenderController.matches(null, "abc"));
+    }
+}